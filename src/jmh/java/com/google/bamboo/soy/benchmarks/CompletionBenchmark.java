@@ -0,0 +1,112 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.benchmarks;
+
+import com.google.bamboo.soy.file.SoyFileType;
+import com.intellij.codeInsight.lookup.LookupElement;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.testFramework.EdtTestUtil;
+import com.intellij.testFramework.fixtures.CodeInsightTestFixture;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Latency of template call completion while typing a name in one file, reported as a histogram.
+ *
+ * <p>Every invocation types the next character of the call identifier and completes it, so the
+ * samples cover both the first completion after a dot and the narrowing keystrokes following it.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class CompletionBenchmark {
+  // Typed character by character, one after the other.
+  private static final String[] IDENTIFIERS = {
+    "benchmark.corpus1000.mo", "corpus.pla", "benchmark.corpus100.file1.co"
+  };
+
+  @Param({"10", "100"})
+  public int files;
+
+  private CodeInsightTestFixture fixture;
+  private Document document;
+  private int identifierOffset;
+  private final List<String> keystrokes = new ArrayList<>();
+  private int typed = 0;
+
+  @Setup
+  public void setUp(SoyPlatform platform) {
+    for (String identifier : IDENTIFIERS) {
+      for (int i = 1; i <= identifier.length(); i++) {
+        keystrokes.add(identifier.substring(0, i));
+      }
+    }
+    fixture = platform.getFixture();
+    EdtTestUtil.runInEdtAndWait(
+        () -> {
+          fixture.addFileToProject("corpus.soy", SoyCorpus.generate(1000));
+          for (int i = 0; i < files; i++) {
+            fixture.addFileToProject(
+                "file" + i + ".soy",
+                SoyCorpus.generate(100).replace("corpus100", "corpus100.file" + i));
+          }
+          fixture.configureByText(
+              SoyFileType.INSTANCE,
+              "{namespace benchmark.caller}\n"
+                  + "{alias benchmark.corpus1000 as corpus}\n"
+                  + "{template .caller}\n"
+                  + "  {call <caret> /}\n"
+                  + "{/template}\n");
+          document = fixture.getEditor().getDocument();
+          identifierOffset = fixture.getCaretOffset();
+          // Warm up the indices and the name tries.
+          fixture.completeBasic();
+        });
+  }
+
+  @Benchmark
+  public LookupElement[] typeAndComplete() {
+    return EdtTestUtil.runInEdtAndGet(
+        () -> {
+          typeNextCharacter();
+          return fixture.completeBasic();
+        });
+  }
+
+  /** Extends the call identifier by one character, starting over once it is typed out. */
+  private void typeNextCharacter() {
+    String text = keystrokes.get(typed++ % keystrokes.size());
+    WriteCommandAction.runWriteCommandAction(
+        fixture.getProject(),
+        () -> {
+          // Completion may have inserted a lookup item, so the end is looked up every time.
+          int end = document.getText().indexOf(" /}", identifierOffset);
+          document.replaceString(identifierOffset, end, text);
+          fixture.getEditor().getCaretModel().moveToOffset(identifierOffset + text.length());
+        });
+    PsiDocumentManager.getInstance(fixture.getProject()).commitAllDocuments();
+  }
+}
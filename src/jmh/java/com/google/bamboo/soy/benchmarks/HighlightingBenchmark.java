@@ -0,0 +1,103 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.benchmarks;
+
+import com.intellij.codeInsight.daemon.impl.HighlightInfo;
+import com.intellij.lang.annotation.HighlightSeverity;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.testFramework.EdtTestUtil;
+import com.intellij.testFramework.fixtures.CodeInsightTestFixture;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Time to highlight a whole file in the editor, with the PSI caches dropped before each run. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class HighlightingBenchmark {
+  private CodeInsightTestFixture fixture;
+  private PsiFile callChain;
+  private PsiFile largeElement;
+
+  @Setup
+  public void setUp(SoyPlatform platform) {
+    fixture = platform.getFixture();
+    EdtTestUtil.runInEdtAndWait(
+        () -> {
+          callChain = fixture.addFileToProject("calls.soy", createCallChain());
+          largeElement = fixture.addFileToProject("element.soy", createLargeElement());
+        });
+  }
+
+  /** 300 templates, each one calling the previous one with its parameters. */
+  private static String createCallChain() {
+    StringBuilder file = new StringBuilder("{namespace calls}\n");
+    for (int i = 0; i < 300; i++) {
+      file.append("{template .template").append(i).append("}\n")
+          .append("  {@param planet: string}\n")
+          .append("  {@param? moon: string}\n")
+          .append("  {$planet}{$moon}\n");
+      if (i > 0) {
+        file.append("  {call .template").append(i - 1).append("}\n")
+            .append("    {param planet: $planet /}\n")
+            .append("    {param moon: $moon /}\n")
+            .append("  {/call}\n");
+      }
+      file.append("{/template}\n");
+    }
+    return file.toString();
+  }
+
+  /** An element of 3000 lines using its 100 parameters. */
+  private static String createLargeElement() {
+    StringBuilder file = new StringBuilder("{namespace element}\n{element .large}\n");
+    for (int i = 0; i < 100; i++) {
+      file.append("  {@param p").append(i).append(": string}\n");
+    }
+    for (int i = 0; i < 3000; i++) {
+      file.append("  <div title=\"{$p").append(i % 100).append("}\">{$p")
+          .append((i + 1) % 100).append("}</div>\n");
+    }
+    return file.append("{/element}\n").toString();
+  }
+
+  private List<HighlightInfo> highlight(PsiFile file) {
+    return EdtTestUtil.runInEdtAndGet(
+        () -> {
+          fixture.openFileInEditor(file.getVirtualFile());
+          PsiDocumentManager.getInstance(fixture.getProject()).commitAllDocuments();
+          fixture.getPsiManager().dropPsiCaches();
+          return fixture.doHighlighting(HighlightSeverity.WEAK_WARNING);
+        });
+  }
+
+  @Benchmark
+  public List<HighlightInfo> highlightCallChain() {
+    return highlight(callChain);
+  }
+
+  @Benchmark
+  public List<HighlightInfo> highlightLargeElement() {
+    return highlight(largeElement);
+  }
+}
@@ -0,0 +1,86 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.benchmarks;
+
+import com.google.bamboo.soy.lexer.SoyHighlightingLexer;
+import com.google.bamboo.soy.lexer.SoyLexer;
+import com.intellij.lexer.Lexer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Lexing throughput of the parser and highlighting lexers. Next to the files per second, the
+ * "megabytes" counter reports the lexed megabytes of UTF-8 source per second.
+ *
+ * <p>The allocations reported by the gc profiler are per lexed file, not per KB of source.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class LexerBenchmark {
+  @Param({"10", "100", "1000"})
+  public int templates;
+
+  private String text;
+  private double megabytes;
+
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  @State(Scope.Thread)
+  public static class Counters {
+    public double megabytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      megabytes = 0;
+    }
+  }
+
+  @Setup
+  public void setUp() {
+    text = SoyCorpus.generate(templates);
+    megabytes = text.getBytes(StandardCharsets.UTF_8).length / (1024.0 * 1024.0);
+  }
+
+  @Benchmark
+  public int lex(Counters counters) {
+    return countTokens(new SoyLexer(), counters);
+  }
+
+  @Benchmark
+  public int lexForHighlighting(Counters counters) {
+    return countTokens(new SoyHighlightingLexer(), counters);
+  }
+
+  private int countTokens(Lexer lexer, Counters counters) {
+    int tokens = 0;
+    lexer.start(text);
+    while (lexer.getTokenType() != null) {
+      tokens++;
+      lexer.advance();
+    }
+    counters.megabytes += megabytes;
+    return tokens;
+  }
+}
@@ -0,0 +1,61 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.benchmarks;
+
+import com.google.bamboo.soy.SoyLanguage;
+import com.google.bamboo.soy.lang.SoyFileModel;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Time to parse a whole file into the Soy tree and to build its file model. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ParserBenchmark {
+  @Param({"10", "100", "1000"})
+  public int templates;
+
+  private String text;
+
+  @Setup
+  public void setUp() {
+    text = SoyCorpus.generate(templates);
+  }
+
+  @Benchmark
+  public Object parse(SoyPlatform platform) {
+    return ReadAction.compute(() -> parse(platform, text).getNode().getLastChildNode());
+  }
+
+  @Benchmark
+  public Object model(SoyPlatform platform) {
+    return ReadAction.compute(() -> SoyFileModel.getModel(parse(platform, text)).getTemplates());
+  }
+
+  static PsiFile parse(SoyPlatform platform, String text) {
+    return PsiFileFactory.getInstance(platform.getProject())
+        .createFileFromText("benchmark.soy", SoyLanguage.INSTANCE, text);
+  }
+}
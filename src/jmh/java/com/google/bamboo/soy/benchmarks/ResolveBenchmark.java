@@ -0,0 +1,128 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.benchmarks;
+
+import com.google.bamboo.soy.parser.SoyTemplateReferenceIdentifier;
+import com.google.bamboo.soy.parser.SoyVariableReferenceIdentifier;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.testFramework.EdtTestUtil;
+import com.intellij.testFramework.fixtures.CodeInsightTestFixture;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Time to resolve every reference of a kind in a file, after dropping the resolve caches. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ResolveBenchmark {
+  private CodeInsightTestFixture fixture;
+  private final List<PsiReference> calls = new ArrayList<>();
+  private final List<PsiReference> variables = new ArrayList<>();
+
+  @Setup
+  public void setUp(SoyPlatform platform) {
+    fixture = platform.getFixture();
+    EdtTestUtil.runInEdtAndWait(
+        () -> {
+          calls.addAll(
+              getReferences(
+                  "caller.soy",
+                  createCallsThroughAliases(),
+                  SoyTemplateReferenceIdentifier.class));
+          variables.addAll(
+              getReferences(
+                  "variables.soy",
+                  createVariableChain(),
+                  SoyVariableReferenceIdentifier.class));
+        });
+  }
+
+  /** 300 calls through 20 aliases, to 20 files of 15 templates each. */
+  private String createCallsThroughAliases() {
+    StringBuilder caller = new StringBuilder("{namespace caller}\n");
+    for (int i = 0; i < 20; i++) {
+      StringBuilder callee = new StringBuilder("{namespace callee.ns" + i + "}\n");
+      for (int j = 0; j < 15; j++) {
+        callee.append("{template .template").append(j).append("}{/template}\n");
+      }
+      fixture.addFileToProject("callee" + i + ".soy", callee.toString());
+      caller.append("{alias callee.ns").append(i).append(" as alias").append(i).append("}\n");
+    }
+    caller.append("{template .caller}\n");
+    for (int i = 0; i < 300; i++) {
+      caller.append("  {call alias").append(i % 20).append(".template").append(i % 15)
+          .append(" /}\n");
+    }
+    return caller.append("{/template}\n").toString();
+  }
+
+  /** A template with 2000 variables, each one defined by the previous one. */
+  private static String createVariableChain() {
+    StringBuilder template = new StringBuilder("{namespace variables}\n{template .large}\n");
+    template.append("  {@param v0: string}\n");
+    for (int i = 1; i < 2000; i++) {
+      template.append("  {let $v").append(i).append(": $v").append(i - 1).append(" /}\n");
+    }
+    return template.append("{/template}\n").toString();
+  }
+
+  private List<PsiReference> getReferences(
+      String fileName, String text, Class<? extends PsiElement> elementClass) {
+    PsiFile file = fixture.addFileToProject(fileName, text);
+    List<PsiReference> references = new ArrayList<>();
+    for (PsiElement element : PsiTreeUtil.findChildrenOfType(file, elementClass)) {
+      references.add(element.getReference());
+    }
+    return references;
+  }
+
+  private int resolveAll(Collection<PsiReference> references) {
+    return ReadAction.compute(
+        () -> {
+          PsiManager.getInstance(fixture.getProject()).dropResolveCaches();
+          int resolved = 0;
+          for (PsiReference reference : references) {
+            if (reference.resolve() != null) {
+              resolved++;
+            }
+          }
+          return resolved;
+        });
+  }
+
+  @Benchmark
+  public int resolveCallsThroughAliases() {
+    return resolveAll(calls);
+  }
+
+  @Benchmark
+  public int resolveVariablesInLargeTemplate() {
+    return resolveAll(variables);
+  }
+}
@@ -0,0 +1,103 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.benchmarks;
+
+import java.util.Random;
+
+/**
+ * Generates Soy files that look like hand written ones: doc comments, aliases, parameters, HTML,
+ * control flow, calls, messages and literal blocks, in proportions typical of application code.
+ *
+ * <p>The output only depends on the number of templates, so results can be compared across
+ * commits.
+ */
+final class SoyCorpus {
+  private static final String[] WORDS = {
+    "planet", "moon", "star", "orbit", "comet", "galaxy", "nebula", "rocket", "crater", "meteor"
+  };
+  private static final String[] TYPES = {
+    "string", "int", "bool", "list<string>", "map<string, int>", "[name: string, size: int]"
+  };
+
+  private SoyCorpus() {}
+
+  /** Returns a file with the given number of templates, about 25 lines each. */
+  static String generate(int templates) {
+    Random random = new Random(templates);
+    StringBuilder out = new StringBuilder();
+    out.append("{namespace benchmark.corpus")
+        .append(templates)
+        .append(" requirecss=\"benchmark.styles\"}\n\n");
+    out.append("{alias benchmark.shared.widgets}\n");
+    out.append("{alias benchmark.shared.layout as layout}\n\n");
+
+    for (int i = 0; i < templates; i++) {
+      String name = word(random) + i;
+      int kind = random.nextInt(10);
+      out.append("/**\n * Renders the ").append(word(random)).append(" of a ")
+          .append(word(random)).append(".\n */\n");
+      if (kind == 0) {
+        out.append("{deltemplate benchmark.delegates.").append(name).append("}\n");
+      } else if (kind == 1) {
+        out.append("{element .").append(name).append("}\n");
+      } else {
+        out.append("{template .").append(name)
+            .append(random.nextBoolean() ? " visibility=\"private\"" : "").append("}\n");
+      }
+
+      int parameters = 1 + random.nextInt(5);
+      for (int p = 0; p < parameters; p++) {
+        out.append("  /** The ").append(word(random)).append(". */\n")
+            .append(p == 0 ? "  {@param " : "  {@param? ")
+            .append("p").append(p).append(": ").append(TYPES[random.nextInt(TYPES.length)])
+            .append("}\n");
+      }
+      if (kind == 1) {
+        out.append("  {@state expanded: bool = false}\n");
+      }
+
+      out.append("  <div class=\"{css('").append(name).append("')}\" data-id=\"{$p0}\">\n");
+      out.append("    {if $p0}\n");
+      out.append("      <span>{$p0}</span>\n");
+      out.append("    {elseif $p1 ?: false}\n");
+      out.append("      {msg desc=\"The ").append(word(random)).append(" label.\"}\n");
+      out.append("        Hello <b>{$p0}</b>, welcome to the ").append(word(random)).append("!\n");
+      out.append("      {/msg}\n");
+      out.append("    {else}\n");
+      out.append("      {for $item in range(").append(1 + random.nextInt(9)).append(")}\n");
+      out.append("        <li id=\"{xid('item')}-{$item}\">{$item + 1}</li>\n");
+      out.append("      {/for}\n");
+      out.append("    {/if}\n");
+      out.append("    {let $label: '").append(word(random)).append("' /}\n");
+      if (i > 0 && kind != 0) {
+        out.append("    {call .").append(word(random)).append(i - 1).append("}\n")
+            .append("      {param p0: $label /}\n")
+            .append("    {/call}\n");
+      }
+      if (random.nextInt(8) == 0) {
+        out.append("    {literal}<script>var x = {a: 1};</script>{/literal}\n");
+      }
+      out.append("    // ").append(word(random)).append(" and ").append(word(random)).append('\n');
+      out.append("  </div>\n");
+      String closingTag = kind == 0 ? "{/deltemplate}" : kind == 1 ? "{/element}" : "{/template}";
+      out.append(closingTag).append("\n\n");
+    }
+    return out.toString();
+  }
+
+  private static String word(Random random) {
+    return WORDS[random.nextInt(WORDS.length)];
+  }
+}
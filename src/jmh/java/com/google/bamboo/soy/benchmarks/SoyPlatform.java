@@ -0,0 +1,58 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.benchmarks;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.testFramework.EdtTestUtil;
+import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.fixtures.CodeInsightTestFixture;
+import com.intellij.testFramework.fixtures.IdeaTestFixtureFactory;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A headless IDE application with a light project, for the benchmarks that need PSI. Benchmarks
+ * that add files or open editors use its code insight fixture, which is torn down after the trial.
+ */
+@State(Scope.Benchmark)
+public class SoyPlatform {
+  private CodeInsightTestFixture fixture;
+
+  @Setup
+  public void setUp() {
+    fixture =
+        IdeaTestFixtureFactory.getFixtureFactory()
+            .createCodeInsightFixture(
+                IdeaTestFixtureFactory.getFixtureFactory()
+                    .createLightFixtureBuilder(LightProjectDescriptor.EMPTY_PROJECT_DESCRIPTOR)
+                    .getFixture());
+    EdtTestUtil.runInEdtAndWait(fixture::setUp);
+  }
+
+  @TearDown
+  public void tearDown() {
+    EdtTestUtil.runInEdtAndWait(fixture::tearDown);
+  }
+
+  Project getProject() {
+    return fixture.getProject();
+  }
+
+  CodeInsightTestFixture getFixture() {
+    return fixture;
+  }
+}
@@ -0,0 +1,64 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.benchmarks;
+
+import com.google.bamboo.soy.file.SoyFile;
+import com.google.bamboo.soy.insight.structure.SoyStructureViewModel;
+import com.intellij.ide.util.treeView.smartTree.TreeElement;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.psi.PsiFile;
+import com.intellij.testFramework.EdtTestUtil;
+import com.intellij.testFramework.fixtures.CodeInsightTestFixture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Time to list the top level of the structure view of an unopened file. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class StructureViewBenchmark {
+  @Param({"100", "3000"})
+  public int templates;
+
+  private CodeInsightTestFixture fixture;
+  private PsiFile file;
+
+  @Setup
+  public void setUp(SoyPlatform platform) {
+    fixture = platform.getFixture();
+    EdtTestUtil.runInEdtAndWait(
+        () -> {
+          file = fixture.addFileToProject("structure.soy", SoyCorpus.generate(templates));
+        });
+  }
+
+  @Benchmark
+  public TreeElement[] structureViewTopLevel() {
+    SoyStructureViewModel model = new SoyStructureViewModel((SoyFile) file, null);
+    try {
+      return ReadAction.compute(() -> model.getRoot().getChildren());
+    } finally {
+      Disposer.dispose(model);
+    }
+  }
+}
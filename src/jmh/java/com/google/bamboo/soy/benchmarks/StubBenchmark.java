@@ -0,0 +1,82 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.benchmarks;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.impl.source.PsiFileImpl;
+import com.intellij.psi.stubs.SerializationManagerEx;
+import com.intellij.psi.stubs.SerializerNotFoundException;
+import com.intellij.psi.stubs.Stub;
+import com.intellij.psi.stubs.StubElement;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Time to build the stub tree of a parsed file, and to write and read it back. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class StubBenchmark {
+  @Param({"10", "100", "1000"})
+  public int templates;
+
+  private PsiFile file;
+  private StubElement<?> stub;
+  private byte[] serializedStub;
+
+  @Setup
+  public void setUp(SoyPlatform platform) {
+    file = ParserBenchmark.parse(platform, SoyCorpus.generate(templates));
+    ReadAction.run(() -> file.getNode());
+    stub = buildStub();
+    serializedStub = serialize();
+  }
+
+  @Benchmark
+  public StubElement<?> build() {
+    return buildStub();
+  }
+
+  @Benchmark
+  public byte[] write() {
+    return serialize();
+  }
+
+  @Benchmark
+  public Stub read() throws SerializerNotFoundException {
+    return SerializationManagerEx.getInstanceEx()
+        .deserialize(new ByteArrayInputStream(serializedStub));
+  }
+
+  private StubElement<?> buildStub() {
+    return ReadAction.compute(
+        () -> ((PsiFileImpl) file).getElementTypeForStubBuilder().getBuilder().buildStubTree(file));
+  }
+
+  private byte[] serialize() {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    SerializationManagerEx.getInstanceEx().serialize(stub, out);
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,108 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.benchmarks;
+
+import com.google.bamboo.soy.insight.navigation.SoyGotoSymbolContributor;
+import com.google.bamboo.soy.lang.TemplateNameUtils;
+import com.google.bamboo.soy.stubs.index.TemplateBlockIndex;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.testFramework.EdtTestUtil;
+import com.intellij.testFramework.fixtures.CodeInsightTestFixture;
+import com.intellij.util.CommonProcessors;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Template name lookups in projects with many templates, spread over files of 1000 templates
+ * each.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TemplateIndexBenchmark {
+  private static final int TEMPLATES_PER_FILE = 1000;
+
+  @Param({"20000", "200000"})
+  public int projectTemplates;
+
+  private CodeInsightTestFixture fixture;
+  private PsiFile localFile;
+
+  @Setup
+  public void setUp(SoyPlatform platform) {
+    fixture = platform.getFixture();
+    EdtTestUtil.runInEdtAndWait(
+        () -> {
+          for (int i = 0; i < projectTemplates / TEMPLATES_PER_FILE; i++) {
+            fixture.addFileToProject(
+                "file" + i + ".soy", generateTemplates("generated.file" + i, TEMPLATES_PER_FILE));
+          }
+          localFile = fixture.addFileToProject("local.soy", generateTemplates("local", 20));
+          // Index all files before measuring.
+          TemplateBlockIndex.INSTANCE.getAllKeys(fixture.getProject());
+        });
+  }
+
+  private static String generateTemplates(String namespace, int count) {
+    StringBuilder builder = new StringBuilder("{namespace " + namespace + "}\n");
+    for (int i = 0; i < count; i++) {
+      builder.append("{template .template").append(i).append("}{/template}\n");
+    }
+    return builder.toString();
+  }
+
+  @Benchmark
+  public List<String> localTemplateNames() {
+    return ReadAction.compute(() -> TemplateNameUtils.findLocalTemplateNames(localFile));
+  }
+
+  @Benchmark
+  public List<TemplateNameUtils.Fragment> firstNextFragments() {
+    List<TemplateNameUtils.Fragment> fragments = new ArrayList<>();
+    ReadAction.run(
+        () ->
+            TemplateNameUtils.processPossibleNextIdentifierFragments(
+                fixture.getProject(),
+                localFile,
+                "generated.file0.template",
+                false,
+                (fragment) -> fragments.add(fragment) && fragments.size() < 50));
+    return fragments;
+  }
+
+  @Benchmark
+  public List<String> gotoSymbolNames() {
+    List<String> names = new ArrayList<>();
+    ReadAction.run(
+        () ->
+            new SoyGotoSymbolContributor()
+                .processNames(
+                    new CommonProcessors.CollectProcessor<>(names),
+                    GlobalSearchScope.projectScope(fixture.getProject()),
+                    null));
+    return names;
+  }
+}
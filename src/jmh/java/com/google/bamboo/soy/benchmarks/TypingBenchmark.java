@@ -0,0 +1,82 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.benchmarks;
+
+import com.google.bamboo.soy.file.SoyFileType;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.testFramework.EdtTestUtil;
+import com.intellij.testFramework.fixtures.CodeInsightTestFixture;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Latency of committing a keystroke inside a template in the middle of a file, reported as a
+ * histogram.
+ *
+ * <p>Invocations alternately type and delete a character, so the file keeps its size.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class TypingBenchmark {
+  @Param({"100", "1000"})
+  public int templates;
+
+  private CodeInsightTestFixture fixture;
+  private Document document;
+  private int offset;
+  private boolean typed = false;
+
+  @Setup
+  public void setUp(SoyPlatform platform) {
+    fixture = platform.getFixture();
+    EdtTestUtil.runInEdtAndWait(
+        () -> {
+          String text = SoyCorpus.generate(templates);
+          fixture.configureByText(SoyFileType.INSTANCE, text);
+          document = fixture.getEditor().getDocument();
+          // Right before the closing tag of a template in the middle of the file.
+          offset = text.indexOf("  </div>\n{/", text.length() / 2);
+        });
+  }
+
+  @Benchmark
+  public Object typeAndCommit() {
+    return EdtTestUtil.runInEdtAndGet(
+        () -> {
+          WriteCommandAction.runWriteCommandAction(
+              fixture.getProject(),
+              () -> {
+                if (typed) {
+                  document.deleteString(offset, offset + 1);
+                } else {
+                  document.insertString(offset, "x");
+                }
+              });
+          typed = !typed;
+          PsiDocumentManager.getInstance(fixture.getProject()).commitAllDocuments();
+          return fixture.getFile().getNode().getLastChildNode();
+        });
+  }
+}
@@ -0,0 +1,81 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy;
+
+import com.google.bamboo.soy.parser.SoyTemplateDefinitionIdentifier;
+import com.google.bamboo.soy.refactoring.TemplateReferenceSearcher;
+import com.intellij.find.findUsages.FindUsagesHandler;
+import com.intellij.find.findUsages.FindUsagesHandlerFactory;
+import com.intellij.find.findUsages.FindUsagesOptions;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.usageView.UsageInfo;
+import com.intellij.util.Processor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Finds template usages through the template reference index only, skipping the word index search
+ * that would parse every file mentioning the template name.
+ */
+public class SoyFindUsagesHandlerFactory extends FindUsagesHandlerFactory {
+
+  @Override
+  public boolean canFindUsages(@NotNull PsiElement element) {
+    return element instanceof SoyTemplateDefinitionIdentifier;
+  }
+
+  @Nullable
+  @Override
+  public FindUsagesHandler createFindUsagesHandler(
+      @NotNull PsiElement element, boolean forHighlightUsages) {
+    return new TemplateFindUsagesHandler(element);
+  }
+
+  private static class TemplateFindUsagesHandler extends FindUsagesHandler {
+    TemplateFindUsagesHandler(@NotNull PsiElement element) {
+      super(element);
+    }
+
+    @Override
+    public boolean processElementUsages(
+        @NotNull PsiElement element,
+        @NotNull Processor<? super UsageInfo> processor,
+        @NotNull FindUsagesOptions options) {
+      if (!(options.searchScope instanceof GlobalSearchScope)) {
+        return super.processElementUsages(element, processor, options);
+      }
+
+      if (options.isUsages) {
+        boolean success =
+            ReadAction.compute(
+                () ->
+                    TemplateReferenceSearcher.processReferences(
+                        (SoyTemplateDefinitionIdentifier) element,
+                        (GlobalSearchScope) options.searchScope,
+                        (reference) -> processor.process(new UsageInfo(reference))));
+        if (!success) {
+          return false;
+        }
+      }
+
+      // Let the default implementation handle the remaining options, such as text occurrences.
+      FindUsagesOptions remainingOptions = options.clone();
+      remainingOptions.isUsages = false;
+      return super.processElementUsages(element, processor, remainingOptions);
+    }
+  }
+}
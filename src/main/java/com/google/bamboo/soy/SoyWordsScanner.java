@@ -0,0 +1,136 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy;
+
+import com.google.bamboo.soy.lexer.SoyLexer;
+import com.google.bamboo.soy.lexer.SoyTokenTypes;
+import com.google.bamboo.soy.parser.SoyTypes;
+import com.intellij.lang.cacheBuilder.VersionedWordsScanner;
+import com.intellij.lang.cacheBuilder.WordOccurrence;
+import com.intellij.lexer.Lexer;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.util.Processor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Collects the words of a Soy file for the id index.
+ *
+ * <p>Qualified names such as {@code foo.bar.baz} are single tokens, they are reported both as a
+ * whole and segment by segment. Variables referenced as {@code $name} inside string literals are
+ * reported as code, so that searching for their usages finds the files using them.
+ */
+public class SoyWordsScanner extends VersionedWordsScanner {
+
+  @Override
+  public void processWords(
+      @NotNull CharSequence fileText, @NotNull Processor<? super WordOccurrence> processor) {
+    Lexer lexer = new SoyLexer();
+    lexer.start(fileText);
+    WordOccurrence occurrence = new WordOccurrence(fileText, 0, 0, null);
+    for (IElementType type; (type = lexer.getTokenType()) != null; lexer.advance()) {
+      int start = lexer.getTokenStart();
+      int end = lexer.getTokenEnd();
+      boolean proceed = true;
+      if (type == SoyTypes.IDENTIFIER_WORD) {
+        occurrence.init(fileText, start, end, WordOccurrence.Kind.CODE);
+        proceed = processor.process(occurrence);
+      } else if (type == SoyTypes.QUALIFIED_IDENTIFIER) {
+        proceed = processQualifiedIdentifier(fileText, start, end, occurrence, processor);
+      } else if (SoyTokenTypes.STRING_LITERALS.contains(type)) {
+        proceed = processWordsIn(fileText, start, end, true, occurrence, processor);
+      } else if (SoyTokenTypes.COMMENTS.contains(type)) {
+        proceed = processWordsIn(fileText, start, end, false, occurrence, processor);
+      }
+      if (!proceed) {
+        return;
+      }
+    }
+  }
+
+  @Override
+  public int getVersion() {
+    return 1;
+  }
+
+  private static boolean processQualifiedIdentifier(
+      CharSequence text,
+      int start,
+      int end,
+      WordOccurrence occurrence,
+      Processor<? super WordOccurrence> processor) {
+    int nameStart = start < end && text.charAt(start) == '.' ? start + 1 : start;
+    boolean isQualified = false;
+    for (int segmentStart = nameStart; segmentStart < end; ) {
+      int segmentEnd = segmentStart;
+      while (segmentEnd < end && text.charAt(segmentEnd) != '.') {
+        segmentEnd++;
+      }
+      isQualified |= segmentEnd < end;
+      if (segmentEnd > segmentStart) {
+        occurrence.init(text, segmentStart, segmentEnd, WordOccurrence.Kind.CODE);
+        if (!processor.process(occurrence)) {
+          return false;
+        }
+      }
+      segmentStart = segmentEnd + 1;
+    }
+    if (isQualified) {
+      occurrence.init(text, nameStart, end, WordOccurrence.Kind.CODE);
+      return processor.process(occurrence);
+    }
+    return true;
+  }
+
+  /**
+   * Reports the words of a string literal or a comment. In string literals, words following a
+   * {@code $} are variable references and reported as code.
+   */
+  private static boolean processWordsIn(
+      CharSequence text,
+      int start,
+      int end,
+      boolean isLiteral,
+      WordOccurrence occurrence,
+      Processor<? super WordOccurrence> processor) {
+    for (int wordStart = start; wordStart < end; ) {
+      if (!isWordPart(text.charAt(wordStart))) {
+        wordStart++;
+        continue;
+      }
+      int wordEnd = wordStart + 1;
+      while (wordEnd < end && isWordPart(text.charAt(wordEnd))) {
+        wordEnd++;
+      }
+      WordOccurrence.Kind kind;
+      if (!isLiteral) {
+        kind = WordOccurrence.Kind.COMMENTS;
+      } else if (wordStart > start && text.charAt(wordStart - 1) == '$') {
+        kind = WordOccurrence.Kind.CODE;
+      } else {
+        kind = WordOccurrence.Kind.LITERALS;
+      }
+      occurrence.init(text, wordStart, wordEnd, kind);
+      if (!processor.process(occurrence)) {
+        return false;
+      }
+      wordStart = wordEnd;
+    }
+    return true;
+  }
+
+  private static boolean isWordPart(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+  }
+}
@@ -0,0 +1,36 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.diagnostics;
+
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.NotNull;
+
+/** Writes the recorded {@link SoyTimings} to the IDE log and starts over. */
+public class DumpSoyTimingsAction extends AnAction {
+  private static final Logger LOG = Logger.getInstance(DumpSoyTimingsAction.class);
+
+  @Override
+  public void update(@NotNull AnActionEvent event) {
+    event.getPresentation().setEnabled(SoyTimings.isEnabled());
+  }
+
+  @Override
+  public void actionPerformed(@NotNull AnActionEvent event) {
+    LOG.info(SoyTimings.getReport());
+    SoyTimings.reset();
+  }
+}
@@ -0,0 +1,159 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.diagnostics;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.util.PsiUtilCore;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Invocation counts and latencies of the annotators, completion providers, folding and formatting,
+ * aggregated per component, file and element type.
+ *
+ * <p>Recording is off unless the "soy.timings.enabled" registry key is set. Single invocations
+ * slower than "soy.timings.slow.threshold.ms" are logged as they happen, and the aggregated report
+ * is written to the log by {@link DumpSoyTimingsAction}.
+ */
+public class SoyTimings {
+  private static final Logger LOG = Logger.getInstance(SoyTimings.class);
+  private static final String ENABLED_KEY = "soy.timings.enabled";
+  private static final String THRESHOLD_KEY = "soy.timings.slow.threshold.ms";
+
+  private static final Map<Entry, Stats> stats = new ConcurrentHashMap<>();
+
+  public static boolean isEnabled() {
+    return Registry.is(ENABLED_KEY, false);
+  }
+
+  public static void measure(
+      @NotNull String component, @Nullable PsiElement element, @NotNull Runnable action) {
+    compute(
+        component,
+        element,
+        () -> {
+          action.run();
+          return null;
+        });
+  }
+
+  public static <T> T compute(
+      @NotNull String component, @Nullable PsiElement element, @NotNull Supplier<T> action) {
+    if (!isEnabled()) {
+      return action.get();
+    }
+    long start = System.nanoTime();
+    try {
+      return action.get();
+    } finally {
+      record(component, element, System.nanoTime() - start);
+    }
+  }
+
+  private static void record(String component, @Nullable PsiElement element, long nanos) {
+    PsiFile file = element == null ? null : element.getContainingFile();
+    IElementType elementType = element == null ? null : PsiUtilCore.getElementType(element);
+    Entry entry =
+        new Entry(
+            component,
+            file == null ? "" : file.getName(),
+            elementType == null ? "" : elementType.toString());
+    stats.computeIfAbsent(entry, (key) -> new Stats()).add(nanos);
+
+    long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+    if (millis >= Registry.intValue(THRESHOLD_KEY, 100)) {
+      LOG.warn(
+          String.format(
+              "Slow %s: %d ms on %s in %s", component, millis, entry.elementType, entry.fileName));
+    }
+  }
+
+  /** Formats the recorded timings, the slowest components first. */
+  @NotNull
+  public static String getReport() {
+    StringBuilder report =
+        new StringBuilder("Closure Templates timings (calls, total ms, max ms):\n");
+    stats.entrySet().stream()
+        .sorted(Comparator.comparingLong(entry -> -entry.getValue().totalNanos.sum()))
+        .forEach(
+            entry ->
+                report.append(
+                    String.format(
+                        "%s\t%s\t%s\t%d\t%d\t%d%n",
+                        entry.getKey().component,
+                        entry.getKey().fileName,
+                        entry.getKey().elementType,
+                        entry.getValue().count.sum(),
+                        TimeUnit.NANOSECONDS.toMillis(entry.getValue().totalNanos.sum()),
+                        TimeUnit.NANOSECONDS.toMillis(entry.getValue().maxNanos.get()))));
+    return report.toString();
+  }
+
+  public static void reset() {
+    stats.clear();
+  }
+
+  private static class Entry {
+    private final String component;
+    private final String fileName;
+    private final String elementType;
+
+    private Entry(String component, String fileName, String elementType) {
+      this.component = component;
+      this.fileName = fileName;
+      this.elementType = elementType;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Entry)) {
+        return false;
+      }
+      Entry entry = (Entry) other;
+      return component.equals(entry.component)
+          && fileName.equals(entry.fileName)
+          && elementType.equals(entry.elementType);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(component, fileName, elementType);
+    }
+  }
+
+  private static class Stats {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    private void add(long nanos) {
+      count.increment();
+      totalNanos.add(nanos);
+      maxNanos.accumulate(nanos);
+    }
+  }
+}
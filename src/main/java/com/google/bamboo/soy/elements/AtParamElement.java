@@ -57,6 +57,13 @@ public interface AtParamElement
     return getTagNameTokenType() == SoyTypes.AT_PARAM_OPT || getDefaultInitializerExpr() != null;
   }
 
+  default boolean hasDefault() {
+    if (getStub() != null) {
+      return getStub().hasDefault;
+    }
+    return getDefaultInitializerExpr() != null;
+  }
+
   default SoyExpr getDefaultInitializerExpr() {
     return getExpr();
   }
@@ -64,6 +71,11 @@ public interface AtParamElement
   default Parameter toParameter() {
     return this.getParamDefinitionIdentifier() == null
         ? null
-        : new Parameter(getName(), getType(), isOptional(), this.getParamDefinitionIdentifier());
+        : new Parameter(
+            getName(),
+            getType(),
+            isOptional(),
+            hasDefault(),
+            this.getParamDefinitionIdentifier());
   }
 }
@@ -14,6 +14,7 @@
 
 package com.google.bamboo.soy.elements;
 
+import com.google.bamboo.soy.lang.DocCommentUtils;
 import com.google.bamboo.soy.lang.Parameter;
 import com.google.bamboo.soy.lang.Scope;
 import com.google.bamboo.soy.lang.StateVariable;
@@ -21,9 +22,13 @@ import com.google.bamboo.soy.lang.Variable;
 import com.google.bamboo.soy.parser.SoyAtInjectSingle;
 import com.google.bamboo.soy.parser.SoyAtParamSingle;
 import com.google.bamboo.soy.parser.SoyAtStateSingle;
+import com.google.bamboo.soy.parser.SoyAttributeKeyValuePair;
+import com.google.bamboo.soy.parser.SoyBeginTemplate;
 import com.google.bamboo.soy.parser.SoyTemplateDefinitionIdentifier;
 import com.google.bamboo.soy.parser.SoyTypes;
 import com.google.bamboo.soy.stubs.TemplateBlockStub;
+import com.google.bamboo.soy.stubs.TemplateDefinitionStub;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiNamedElement;
 import com.intellij.psi.StubBasedPsiElement;
@@ -42,6 +47,9 @@ import org.jetbrains.annotations.Nullable;
 public interface TemplateBlockElement
     extends StubBasedPsiElement<TemplateBlockStub>, PsiNamedElement, TagBlockElement, Scope {
 
+  @NotNull
+  SoyBeginTemplate getBeginTemplate();
+
   @NotNull
   List<SoyAtInjectSingle> getAtInjectSingleList();
 
@@ -58,6 +66,11 @@ public interface TemplateBlockElement
 
   @Nullable
   default SoyTemplateDefinitionIdentifier getDefinitionIdentifier() {
+    TemplateBlockStub stub = getStub();
+    if (stub != null) {
+      TemplateDefinitionStub definitionStub = stub.getDefinitionStub();
+      return definitionStub == null ? null : definitionStub.getPsi();
+    }
     return PsiTreeUtil.findChildOfType(this, SoyTemplateDefinitionIdentifier.class);
   }
 
@@ -65,6 +78,54 @@ public interface TemplateBlockElement
     return getStub() != null ? getStub().isDelegate : getTagNameTokenType() == SoyTypes.DELTEMPLATE;
   }
 
+  default boolean isPrivate() {
+    if (getStub() != null) {
+      return getStub().isPrivate;
+    }
+    return "private".equals(getAttributeValue("visibility"));
+  }
+
+  default boolean isStrictHtml() {
+    if (getStub() != null) {
+      return getStub().isStrictHtml;
+    }
+    return !"false".equals(getAttributeValue("stricthtml"));
+  }
+
+  /** The content kind of the template, "html" unless specified otherwise. */
+  @NotNull
+  default String getKind() {
+    if (getStub() != null) {
+      return getStub().kind;
+    }
+    String kind = getAttributeValue("kind");
+    return kind == null ? "html" : kind;
+  }
+
+  /** The preview of the doc comment preceding the template, or an empty string. */
+  @NotNull
+  default String getDocSummary() {
+    if (getStub() != null) {
+      return getStub().docSummary;
+    }
+    String docComment = DocCommentUtils.getDocComment(getBeginTemplate());
+    return docComment == null ? "" : DocCommentUtils.produceCommentPreview(docComment).trim();
+  }
+
+  /** The unquoted value of the given attribute of the opening template tag. Always uses PSI. */
+  @Nullable
+  default String getAttributeValue(@NotNull String name) {
+    return getBeginTemplate()
+        .getAttributeKeyValuePairList()
+        .stream()
+        .filter(pair -> pair.getAttributeNameIdentifier().getText().equals(name))
+        .map(SoyAttributeKeyValuePair::getAnyStringLiteral)
+        .filter(Objects::nonNull)
+        .map(literal -> StringUtil.unquoteString(literal.getText()))
+        .findFirst()
+        .orElse(null);
+  }
+
   @NotNull
   default List<Parameter> getParameters() {
     if (getStub() != null) {
@@ -14,6 +14,7 @@
 
 package com.google.bamboo.soy.elements;
 
+import com.google.bamboo.soy.file.SoyFile;
 import com.google.bamboo.soy.stubs.TemplateDefinitionStub;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiNamedElement;
@@ -31,6 +32,15 @@ public interface TemplateDefinitionElement
   @Override
   String getName();
 
+  @NotNull
+  default String getFullyQualifiedName() {
+    if (getStub() != null) {
+      return getStub().getFullyQualifiedName();
+    }
+    String name = getName();
+    return name.startsWith(".") ? ((SoyFile) getContainingFile()).getNamespace() + name : name;
+  }
+
   @Override
   default PsiElement setName(@NotNull String s) throws IncorrectOperationException {
     return null;
@@ -0,0 +1,34 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.elements;
+
+import com.google.bamboo.soy.lang.TemplateNameUtils;
+import com.google.bamboo.soy.stubs.TemplateReferenceStub;
+import com.intellij.psi.StubBasedPsiElement;
+import org.jetbrains.annotations.NotNull;
+
+/** The PSI element that represents the template name in a {call} or {delcall} tag. */
+public interface TemplateReferenceElement
+    extends StubBasedPsiElement<TemplateReferenceStub>, IdentifierElement {
+
+  /** Returns the referenced template name with relative names and aliases resolved. */
+  @NotNull
+  default String getFullyQualifiedName() {
+    if (getStub() != null) {
+      return getStub().getFullyQualifiedName();
+    }
+    return TemplateNameUtils.normalizeTemplateName(this, getText());
+  }
+}
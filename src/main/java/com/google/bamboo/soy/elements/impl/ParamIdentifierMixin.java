@@ -20,6 +20,9 @@ import com.intellij.lang.ASTNode;
 import com.intellij.navigation.ItemPresentation;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiReference;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -38,7 +41,14 @@ public abstract class ParamIdentifierMixin extends SoyIdentifierOwnerMixin
 
   @Override
   public PsiReference getReference() {
-    return new ParameterDefinitionReference(getNode().getPsi(), getNode().getTextRange());
+    // The same reference instance is returned until the next PSI change, so that its resolution
+    // can be cached.
+    return CachedValuesManager.getCachedValue(
+        this,
+        () ->
+            CachedValueProvider.Result.create(
+                new ParameterDefinitionReference(getNode().getPsi(), getNode().getTextRange()),
+                PsiModificationTracker.MODIFICATION_COUNT));
   }
 
   @Override
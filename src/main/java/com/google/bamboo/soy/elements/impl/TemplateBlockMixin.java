@@ -40,6 +40,9 @@ public abstract class TemplateBlockMixin extends SoyStubBasedPsiElementBase<Temp
   }
 
   public boolean isElementBlock() {
+    if (getStub() != null) {
+      return getStub().isElement;
+    }
     return getTagNameTokenType() == SoyTypes.ELEMENT;
   }
 
@@ -0,0 +1,72 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.elements.impl;
+
+import com.google.bamboo.soy.elements.TemplateReferenceElement;
+import com.google.bamboo.soy.elements.references.TemplateDefinitionReference;
+import com.google.bamboo.soy.stubs.TemplateReferenceStub;
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.stubs.IStubElementType;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+public class TemplateReferenceMixin extends SoyStubBasedPsiElementBase<TemplateReferenceStub>
+    implements TemplateReferenceElement {
+
+  public TemplateReferenceMixin(TemplateReferenceStub stub, IStubElementType type) {
+    super(stub, type);
+  }
+
+  public TemplateReferenceMixin(ASTNode node) {
+    super(node);
+  }
+
+  public TemplateReferenceMixin(TemplateReferenceStub stub, IElementType type, ASTNode node) {
+    super(stub, type, node);
+  }
+
+  @Override
+  public PsiReference getReference() {
+    // The same reference instance is returned until the next PSI change, so that its resolution
+    // can be cached.
+    return CachedValuesManager.getCachedValue(
+        this,
+        () ->
+            CachedValueProvider.Result.create(
+                createReference(), PsiModificationTracker.MODIFICATION_COUNT));
+  }
+
+  @Nullable
+  private PsiReference createReference() {
+    String identifier = getText();
+    // Either a relative or a fully qualified template identifier.
+    if (identifier.startsWith(".") || identifier.split("\\.").length >= 2) {
+      return new TemplateDefinitionReference(this, getTextRange());
+    }
+    return null;
+  }
+
+  @NotNull
+  @Override
+  public PsiReference[] getReferences() {
+    PsiReference reference = getReference();
+    return reference == null ? PsiReference.EMPTY_ARRAY : new PsiReference[] {reference};
+  }
+}
@@ -15,17 +15,24 @@
 package com.google.bamboo.soy.elements.references;
 
 import com.google.bamboo.soy.elements.CallStatementElement;
-import com.google.bamboo.soy.lang.ParamUtils;
+import com.google.bamboo.soy.parser.SoyTemplateBlock;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiPolyVariantReference;
 import com.intellij.psi.PsiReference;
 import com.intellij.psi.PsiReferenceBase;
+import com.intellij.psi.ResolveResult;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
 import com.intellij.psi.util.PsiTreeUtil;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class ParameterDefinitionReference extends PsiReferenceBase<PsiElement>
     implements PsiReference {
 
+  private static final ResolveCache.Resolver RESOLVER =
+      (reference, incompleteCode) -> ((ParameterDefinitionReference) reference).resolveInner();
+
   private final String parameterName;
 
   public ParameterDefinitionReference(PsiElement element, TextRange textRange) {
@@ -36,6 +43,12 @@ public class ParameterDefinitionReference extends PsiReferenceBase<PsiElement>
 
   @Override
   public PsiElement resolve() {
+    return ResolveCache.getInstance(getElement().getProject())
+        .resolveWithCaching(this, RESOLVER, false, false);
+  }
+
+  @Nullable
+  private PsiElement resolveInner() {
     PsiElement element = this.getElement();
     CallStatementElement callStatement =
         (CallStatementElement) PsiTreeUtil
@@ -47,11 +60,27 @@ public class ParameterDefinitionReference extends PsiReferenceBase<PsiElement>
         return null;
       }
 
-      return ParamUtils.getParametersForInvocation(element, identifier.getText())
+      // Reuses the cached resolution of the call instead of looking the callee up again.
+      PsiReference templateReference = identifier.getReference();
+      if (!(templateReference instanceof PsiPolyVariantReference)) {
+        return null;
+      }
+      ResolveResult[] templates =
+          ((PsiPolyVariantReference) templateReference).multiResolve(false);
+      SoyTemplateBlock templateBlock =
+          templates.length == 0
+              ? null
+              : PsiTreeUtil.getStubOrPsiParentOfType(
+                  templates[0].getElement(), SoyTemplateBlock.class);
+      if (templateBlock == null) {
+        return null;
+      }
+
+      return templateBlock.getParameters()
           .stream()
           .filter((var) -> var.name.equals(parameterName))
           .findAny()
-          .map((var) -> var.element)
+          .map((var) -> var.getElement())
           .orElse(null);
     }
 
@@ -22,11 +22,21 @@ import com.intellij.psi.PsiElementResolveResult;
 import com.intellij.psi.PsiPolyVariantReference;
 import com.intellij.psi.PsiReferenceBase;
 import com.intellij.psi.ResolveResult;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
 import java.util.stream.Collectors;
 import org.jetbrains.annotations.NotNull;
 
 public class TemplateDefinitionReference extends PsiReferenceBase<PsiElement>
     implements PsiPolyVariantReference {
+  private static final ResolveCache.PolyVariantResolver<TemplateDefinitionReference> RESOLVER =
+      (reference, incompleteCode) ->
+          PsiElementResolveResult.createResults(
+              TemplateNameUtils.findTemplateDeclarations(
+                      reference.getElement(), reference.templateName)
+                  .stream()
+                  .map(SoyTemplateBlock::getDefinitionIdentifier)
+                  .collect(Collectors.toList()));
+
   private final String templateName;
 
   public TemplateDefinitionReference(PsiElement element, TextRange textRange) {
@@ -36,11 +46,8 @@ public class TemplateDefinitionReference extends PsiReferenceBase<PsiElement>
 
   @Override
   public ResolveResult @NotNull [] multiResolve(boolean incompleteCode) {
-    return PsiElementResolveResult.createResults(
-        TemplateNameUtils.findTemplateDeclarations(this.getElement(), templateName)
-            .stream()
-            .map(SoyTemplateBlock::getDefinitionIdentifier)
-            .collect(Collectors.toList()));
+    return ResolveCache.getInstance(getElement().getProject())
+        .resolveWithCaching(this, RESOLVER, false, incompleteCode);
   }
 
   @Override
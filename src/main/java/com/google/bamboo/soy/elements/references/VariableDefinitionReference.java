@@ -15,6 +15,7 @@
 package com.google.bamboo.soy.elements.references;
 
 import com.google.bamboo.soy.lang.Scope;
+import com.google.bamboo.soy.lang.SymbolTable;
 import com.google.bamboo.soy.lang.Variable;
 import com.google.bamboo.soy.parser.SoyTypes;
 import com.google.common.collect.ImmutableList;
@@ -52,12 +53,10 @@ public class VariableDefinitionReference extends PsiReferenceBase<PsiElement>
   @NotNull
   private ResolveResult[] multiResolve() {
     final Collection<Variable> definitions =
-        Scope.getScopeOrEmpty(this.getElement()).getVariables();
+        SymbolTable.findVariables(this.getElement(), this.identifier);
     List<ResolveResult> results = new ArrayList<>();
     for (Variable definition : definitions) {
-      if (definition.name.equals(this.identifier)) {
-        results.add(new PsiElementResolveResult(definition.element));
-      }
+      results.add(new PsiElementResolveResult(definition.getElement()));
     }
 
     return results.toArray(ResolveResult.EMPTY_ARRAY);
@@ -0,0 +1,101 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.file;
+
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.FileViewProvider;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import java.io.IOException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Decides whether a Soy file is too large for the expensive editor features.
+ *
+ * <p>Files over "soy.large.file.size.kb" kilobytes or "soy.large.file.lines" lines, typically
+ * generated ones, are only highlighted by the lexer: the annotators and the cross-file checks are
+ * skipped, folding only looks at the top-level blocks and no HTML tree is built for them.
+ *
+ * <p>The decision is taken by the {@link SoyFileViewProvider} of the file, so that the features
+ * and the set of PSI trees always agree. A file crossing a threshold gets a new view provider.
+ */
+public class LargeFileMode {
+  private static final String SIZE_KEY = "soy.large.file.size.kb";
+  private static final String LINES_KEY = "soy.large.file.lines";
+
+  /** Whether the file is treated as large, as decided by its view provider. */
+  public static boolean isLargeFile(@Nullable PsiFile file) {
+    if (file == null) {
+      return false;
+    }
+    FileViewProvider viewProvider = file.getViewProvider();
+    if (!(viewProvider instanceof SoyFileViewProvider)) {
+      return isLargeText(viewProvider.getContents());
+    }
+    SoyFileViewProvider soyViewProvider = (SoyFileViewProvider) viewProvider;
+    if (soyViewProvider.isLargeFile() != isCurrentTextLarge(file)) {
+      soyViewProvider.scheduleRecreation();
+    }
+    return soyViewProvider.isLargeFile();
+  }
+
+  private static boolean isCurrentTextLarge(PsiFile file) {
+    return CachedValuesManager.getCachedValue(
+        file,
+        () ->
+            CachedValueProvider.Result.create(
+                isLargeText(file.getViewProvider().getContents()), file));
+  }
+
+  /**
+   * Whether the current text of the file is above the thresholds. The text is read from the
+   * document if there is one, and from the file without creating a document otherwise.
+   */
+  static boolean isLargeFile(@NotNull VirtualFile file) {
+    Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+    if (document != null) {
+      return isLargeText(document.getImmutableCharSequence());
+    }
+    // There are at most as many characters and lines as there are bytes.
+    if (file.getLength() <= getMaxSize() && file.getLength() < getMaxLines()) {
+      return false;
+    }
+    try {
+      return isLargeText(VfsUtilCore.loadText(file));
+    } catch (IOException e) {
+      return file.getLength() > getMaxSize();
+    }
+  }
+
+  private static boolean isLargeText(CharSequence text) {
+    return text.length() > getMaxSize()
+        || (text.length() >= getMaxLines() && StringUtil.countNewLines(text) >= getMaxLines());
+  }
+
+  private static long getMaxSize() {
+    return Registry.intValue(SIZE_KEY, 1024) * 1024L;
+  }
+
+  private static int getMaxLines() {
+    return Registry.intValue(LINES_KEY, 20000);
+  }
+}
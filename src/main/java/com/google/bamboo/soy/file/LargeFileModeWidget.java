@@ -0,0 +1,88 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.file;
+
+import com.intellij.openapi.fileEditor.FileEditorManagerEvent;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.wm.StatusBarWidget;
+import com.intellij.openapi.wm.impl.status.EditorBasedWidget;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.util.Consumer;
+import java.awt.Component;
+import java.awt.event.MouseEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/** Shows in the status bar that the selected Soy file is in {@link LargeFileMode}. */
+class LargeFileModeWidget extends EditorBasedWidget implements StatusBarWidget.TextPresentation {
+  static final String ID = "SoyLargeFileMode";
+
+  LargeFileModeWidget(@NotNull Project project) {
+    super(project);
+  }
+
+  @NotNull
+  @Override
+  public String ID() {
+    return ID;
+  }
+
+  @Nullable
+  @Override
+  public WidgetPresentation getPresentation() {
+    return this;
+  }
+
+  @Override
+  public void selectionChanged(@NotNull FileEditorManagerEvent event) {
+    if (myStatusBar != null) {
+      myStatusBar.updateWidget(ID);
+    }
+  }
+
+  @NotNull
+  @Override
+  public String getText() {
+    return isSelectedFileLarge() ? "Soy: large file mode" : "";
+  }
+
+  @Override
+  public float getAlignment() {
+    return Component.CENTER_ALIGNMENT;
+  }
+
+  @Nullable
+  @Override
+  public String getTooltipText() {
+    return "Annotators, cross-file checks and HTML support are off for this large Soy file";
+  }
+
+  @Nullable
+  @Override
+  public Consumer<MouseEvent> getClickConsumer() {
+    return null;
+  }
+
+  private boolean isSelectedFileLarge() {
+    VirtualFile file = getSelectedFile();
+    if (file == null || file.getFileType() != SoyFileType.INSTANCE || !file.isValid()) {
+      return false;
+    }
+    PsiFile psiFile = PsiManager.getInstance(getProject()).findFile(file);
+    return LargeFileMode.isLargeFile(psiFile);
+  }
+}
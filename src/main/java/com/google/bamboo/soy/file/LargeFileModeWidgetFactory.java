@@ -0,0 +1,58 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.file;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.wm.StatusBar;
+import com.intellij.openapi.wm.StatusBarWidget;
+import com.intellij.openapi.wm.StatusBarWidgetFactory;
+import org.jetbrains.annotations.NotNull;
+
+public class LargeFileModeWidgetFactory implements StatusBarWidgetFactory {
+
+  @NotNull
+  @Override
+  public String getId() {
+    return LargeFileModeWidget.ID;
+  }
+
+  @NotNull
+  @Override
+  public String getDisplayName() {
+    return "Soy Large File Mode";
+  }
+
+  @Override
+  public boolean isAvailable(@NotNull Project project) {
+    return true;
+  }
+
+  @NotNull
+  @Override
+  public StatusBarWidget createWidget(@NotNull Project project) {
+    return new LargeFileModeWidget(project);
+  }
+
+  @Override
+  public void disposeWidget(@NotNull StatusBarWidget widget) {
+    Disposer.dispose(widget);
+  }
+
+  @Override
+  public boolean canBeEnabledOn(@NotNull StatusBar statusBar) {
+    return true;
+  }
+}
@@ -15,12 +15,19 @@
 package com.google.bamboo.soy.file;
 
 import com.google.bamboo.soy.SoyLanguage;
+import com.google.bamboo.soy.lang.AliasMapper;
+import com.google.bamboo.soy.parser.SoyBlockList;
 import com.google.bamboo.soy.parser.SoyNamespaceDeclarationIdentifier;
+import com.google.bamboo.soy.parser.SoyTemplateBlock;
 import com.google.bamboo.soy.stubs.FileStub;
 import com.intellij.extapi.psi.PsiFileBase;
 import com.intellij.openapi.fileTypes.FileType;
 import com.intellij.psi.FileViewProvider;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.PsiTreeUtil;
+import java.util.List;
+import java.util.stream.Collectors;
 import org.jetbrains.annotations.NotNull;
 
 public class SoyFile extends PsiFileBase {
@@ -52,4 +59,33 @@ public class SoyFile extends PsiFileBase {
         PsiTreeUtil.findChildOfType(this, SoyNamespaceDeclarationIdentifier.class);
     return namespaceDeclaration == null ? "" : namespaceDeclaration.getName();
   }
+
+  /** Returns the namespace alias mapping of this file, computed once per file modification. */
+  @NotNull
+  public AliasMapper getAliasMapper() {
+    if (getStub() != null) {
+      return getStub().getAliasMapper();
+    }
+    return CachedValuesManager.getCachedValue(
+        this, () -> CachedValueProvider.Result.create(new AliasMapper(this), this));
+  }
+
+  /**
+   * Names of the non-delegate templates defined in this file, as written in their definitions.
+   *
+   * <p>Only looks at the top-level blocks of this file, read from the stub tree when available.
+   */
+  @NotNull
+  public List<String> getLocalTemplateNames() {
+    if (getStub() != null) {
+      return getStub().getLocalTemplateNames();
+    }
+    SoyBlockList blockList = PsiTreeUtil.getChildOfType(this, SoyBlockList.class);
+    return PsiTreeUtil.getChildrenOfTypeAsList(blockList, SoyTemplateBlock.class)
+        .stream()
+        .filter(block -> !block.isDelegate())
+        .map(SoyTemplateBlock::getName)
+        .filter(name -> !name.isEmpty())
+        .collect(Collectors.toList());
+  }
 }
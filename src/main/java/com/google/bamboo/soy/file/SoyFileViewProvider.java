@@ -22,18 +22,27 @@ import com.intellij.lang.Language;
 import com.intellij.lang.LanguageParserDefinitions;
 import com.intellij.lang.ParserDefinition;
 import com.intellij.lang.html.HTMLLanguage;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.MultiplePsiFilesPerDocumentFileViewProvider;
+import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
-import com.intellij.psi.impl.source.PsiFileImpl;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.PsiWhiteSpace;
+import com.intellij.psi.impl.source.html.HtmlFileImpl;
 import com.intellij.psi.templateLanguages.ConfigurableTemplateLanguageFileViewProvider;
 import com.intellij.psi.templateLanguages.TemplateDataElementType;
 import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.IStubFileElementType;
 import com.intellij.psi.tree.OuterLanguageElementType;
+import com.intellij.psi.util.PsiUtilCore;
+import com.intellij.util.FileContentUtilCore;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class SoyFileViewProvider extends MultiplePsiFilesPerDocumentFileViewProvider
     implements ConfigurableTemplateLanguageFileViewProvider {
@@ -51,13 +60,35 @@ public class SoyFileViewProvider extends MultiplePsiFilesPerDocumentFileViewProv
   private static final TemplateDataElementType TEMPLATE_DATA_ELEMENT_TYPE =
       new TemplateDataElementType("CLOSURE_TEMPLATE_DATA", TEMPLATE_DATA_LANGUAGE, OTHER, OUTER_ELEMENT_TYPE);
 
+  // Large files get no template data tree. The languages of a view provider must not change, so
+  // this is decided once and a file crossing a threshold gets a new view provider.
+  private final boolean isLargeFile;
+  private final AtomicBoolean isRecreationScheduled = new AtomicBoolean();
+
   SoyFileViewProvider(PsiManager manager, VirtualFile file, boolean physical) {
     super(manager, file, physical);
+    isLargeFile = LargeFileMode.isLargeFile(file);
+  }
+
+  boolean isLargeFile() {
+    return isLargeFile;
+  }
+
+  /** Replaces this view provider by one with the languages matching the current file size. */
+  void scheduleRecreation() {
+    if (!isEventSystemEnabled() || !isRecreationScheduled.compareAndSet(false, true)) {
+      return;
+    }
+    VirtualFile file = getVirtualFile();
+    ApplicationManager.getApplication()
+        .invokeLater(
+            () -> FileContentUtilCore.reparseFiles(file), getManager().getProject().getDisposed());
   }
 
   @Override
   public boolean supportsIncrementalReparse(@NotNull Language rootLanguage) {
-    return false;
+    // Soy trees are reparsed incrementally by template block, template data is reparsed in full.
+    return rootLanguage.isKindOf(BASE_LANGUAGE);
   }
 
   @NotNull
@@ -75,7 +106,9 @@ public class SoyFileViewProvider extends MultiplePsiFilesPerDocumentFileViewProv
   @NotNull
   @Override
   public Set<Language> getLanguages() {
-    return ImmutableSet.of(BASE_LANGUAGE, TEMPLATE_DATA_LANGUAGE);
+    return isLargeFile
+        ? ImmutableSet.of(BASE_LANGUAGE)
+        : ImmutableSet.of(BASE_LANGUAGE, TEMPLATE_DATA_LANGUAGE);
   }
 
   @NotNull
@@ -92,10 +125,16 @@ public class SoyFileViewProvider extends MultiplePsiFilesPerDocumentFileViewProv
       return null;
     }
 
-    if (lang.is(TEMPLATE_DATA_LANGUAGE)) {
-      PsiFileImpl file = (PsiFileImpl) parserDefinition.createFile(this);
-      file.setContentElementType(TEMPLATE_DATA_ELEMENT_TYPE);
-      return file;
+    if (lang.is(TEMPLATE_DATA_LANGUAGE) && !isLargeFile) {
+      // The HTML tree is only parsed once an HTML aware feature asks for it, so it must not be
+      // built for the stub index.
+      return new HtmlFileImpl(this, TEMPLATE_DATA_ELEMENT_TYPE) {
+        @Nullable
+        @Override
+        public IStubFileElementType getElementTypeForStubBuilder() {
+          return null;
+        }
+      };
     } else if (lang.isKindOf(BASE_LANGUAGE)) {
       return parserDefinition.createFile(this);
     } else {
@@ -103,6 +142,31 @@ public class SoyFileViewProvider extends MultiplePsiFilesPerDocumentFileViewProv
     }
   }
 
+  /**
+   * Finds Soy elements in the Soy tree alone. Only template data and whitespace are looked up in
+   * all trees, which loads the HTML tree.
+   */
+  @Nullable
+  @Override
+  public PsiElement findElementAt(int offset) {
+    PsiElement element = findElementAt(offset, BASE_LANGUAGE);
+    return isSoyElement(element) ? element : super.findElementAt(offset);
+  }
+
+  @Nullable
+  @Override
+  public PsiReference findReferenceAt(int offset) {
+    return isSoyElement(findElementAt(offset, BASE_LANGUAGE))
+        ? findReferenceAt(offset, BASE_LANGUAGE)
+        : super.findReferenceAt(offset);
+  }
+
+  private static boolean isSoyElement(@Nullable PsiElement element) {
+    return element != null
+        && !(element instanceof PsiWhiteSpace)
+        && PsiUtilCore.getElementType(element) != OTHER;
+  }
+
   private ParserDefinition getDefinition(Language lang) {
     return LanguageParserDefinitions.INSTANCE.forLanguage(lang);
   }
@@ -15,6 +15,7 @@
 package com.google.bamboo.soy.format.blocks;
 
 import com.google.bamboo.soy.SoyLanguage;
+import com.google.bamboo.soy.diagnostics.SoyTimings;
 import com.google.bamboo.soy.elements.ParamElement;
 import com.google.bamboo.soy.elements.StatementElement;
 import com.google.bamboo.soy.elements.TagBlockElement;
@@ -258,8 +259,20 @@ public class SoyBlock extends TemplateLanguageBlock {
     }
   }
 
+  // The formatter builds sub-blocks and asks for spacings lazily, after the model was created, so
+  // this is where formatting time is spent.
+  @Override
+  protected List<Block> buildChildren() {
+    return SoyTimings.compute("Formatting blocks", myNode.getPsi(), super::buildChildren);
+  }
+
   @Override
   public Spacing getSpacing(Block child1, Block child2) {
+    return SoyTimings.compute(
+        "Formatting spacing", myNode.getPsi(), () -> computeSpacing(child1, child2));
+  }
+
+  private Spacing computeSpacing(Block child1, Block child2) {
     if (getNode().getElementType() == SoyTypes.LITERAL_STATEMENT) {
       // No custom spacing inside literal statements whatsoever.
       return null;
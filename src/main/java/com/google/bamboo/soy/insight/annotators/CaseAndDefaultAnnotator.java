@@ -17,15 +17,15 @@ package com.google.bamboo.soy.insight.annotators;
 import com.google.bamboo.soy.elements.ChoiceStatementElement;
 import com.google.bamboo.soy.parser.SoyChoiceClause;
 import com.intellij.lang.annotation.AnnotationHolder;
-import com.intellij.lang.annotation.Annotator;
 import com.intellij.lang.annotation.HighlightSeverity;
 import com.intellij.psi.PsiElement;
 import org.jetbrains.annotations.NotNull;
 
-public class CaseAndDefaultAnnotator implements Annotator {
+public class CaseAndDefaultAnnotator extends SoyAnnotator {
 
   @Override
-  public void annotate(@NotNull PsiElement psiElement, @NotNull AnnotationHolder annotationHolder) {
+  protected void doAnnotate(
+      @NotNull PsiElement psiElement, @NotNull AnnotationHolder annotationHolder) {
     if (psiElement instanceof ChoiceStatementElement) {
       boolean foundDefault = false;
       for (PsiElement child : psiElement.getChildren()) {
@@ -40,7 +40,6 @@ import com.google.bamboo.soy.parser.impl.SoySpecialCharacterStatementImpl;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
 import com.intellij.lang.annotation.AnnotationHolder;
-import com.intellij.lang.annotation.Annotator;
 import com.intellij.lang.annotation.HighlightSeverity;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.tree.TokenSet;
@@ -48,7 +47,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.jetbrains.annotations.NotNull;
 
-public class ClosingBraceSanityAnnotator implements Annotator {
+public class ClosingBraceSanityAnnotator extends SoyAnnotator {
 
   @VisibleForTesting
   static final ImmutableSet<Class<?>> mustCloseRBraceTags =
@@ -79,7 +78,8 @@ public class ClosingBraceSanityAnnotator implements Annotator {
       ImmutableSet.of(SoyLetSingleStatementImpl.class);
 
   @Override
-  public void annotate(@NotNull PsiElement psiElement, @NotNull AnnotationHolder annotationHolder) {
+  protected void doAnnotate(
+      @NotNull PsiElement psiElement, @NotNull AnnotationHolder annotationHolder) {
     if (psiElement instanceof TagElement) {
       TagElement tagElement = (TagElement) psiElement;
 
@@ -17,15 +17,15 @@ package com.google.bamboo.soy.insight.annotators;
 import com.google.bamboo.soy.parser.SoyAtParamSingle;
 import com.google.bamboo.soy.parser.SoyTypes;
 import com.intellij.lang.annotation.AnnotationHolder;
-import com.intellij.lang.annotation.Annotator;
 import com.intellij.lang.annotation.HighlightSeverity;
 import com.intellij.psi.PsiElement;
 import org.jetbrains.annotations.NotNull;
 
-public class DefaultInitializerOnOptionalParameterAnnotator implements Annotator {
+public class DefaultInitializerOnOptionalParameterAnnotator extends SoyAnnotator {
 
   @Override
-  public void annotate(@NotNull PsiElement element, @NotNull AnnotationHolder annotationHolder) {
+  protected void doAnnotate(
+      @NotNull PsiElement element, @NotNull AnnotationHolder annotationHolder) {
     if (element instanceof SoyAtParamSingle) {
       SoyAtParamSingle atParamSingle = (SoyAtParamSingle) element;
       if (atParamSingle.getTagNameTokenType() == SoyTypes.AT_PARAM_OPT
@@ -15,23 +15,24 @@
 package com.google.bamboo.soy.insight.annotators;
 
 import com.google.bamboo.soy.elements.AtElementSingle;
-import com.google.bamboo.soy.lang.ParamUtils;
+import com.google.bamboo.soy.lang.SoyFileModel;
+import com.google.bamboo.soy.lang.SoyFileModel.TemplateInfo;
 import com.google.bamboo.soy.lang.StateVariable;
 import com.google.bamboo.soy.parser.SoyAtParamSingle;
 import com.google.bamboo.soy.parser.SoyExpr;
 import com.google.bamboo.soy.parser.SoyVariableReferenceIdentifier;
 import com.intellij.lang.annotation.AnnotationHolder;
-import com.intellij.lang.annotation.Annotator;
 import com.intellij.lang.annotation.HighlightSeverity;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.util.PsiTreeUtil;
 import java.util.Collection;
 import org.jetbrains.annotations.NotNull;
 
-public class DefaultInitializerRefsAnnotator implements Annotator {
+public class DefaultInitializerRefsAnnotator extends SoyAnnotator {
 
   @Override
-  public void annotate(@NotNull PsiElement element, @NotNull AnnotationHolder annotationHolder) {
+  protected void doAnnotate(
+      @NotNull PsiElement element, @NotNull AnnotationHolder annotationHolder) {
     if (!(element instanceof SoyVariableReferenceIdentifier)) {
       return;
     }
@@ -59,7 +60,11 @@ public class DefaultInitializerRefsAnnotator implements Annotator {
       return;
     }
 
-    Collection<StateVariable> declaredStates = ParamUtils.getStateDefinitions(element);
+    TemplateInfo template = SoyFileModel.getEnclosingTemplate(element);
+    if (template == null) {
+      return;
+    }
+    Collection<StateVariable> declaredStates = template.stateVariables;
 
     if (variableRef.getIdentifierWord() == null) {
       return;
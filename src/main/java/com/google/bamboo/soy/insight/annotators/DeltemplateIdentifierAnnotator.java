@@ -16,15 +16,15 @@ package com.google.bamboo.soy.insight.annotators;
 
 import com.google.bamboo.soy.parser.SoyTemplateBlock;
 import com.intellij.lang.annotation.AnnotationHolder;
-import com.intellij.lang.annotation.Annotator;
 import com.intellij.lang.annotation.HighlightSeverity;
 import com.intellij.psi.PsiElement;
 import org.jetbrains.annotations.NotNull;
 
-public class DeltemplateIdentifierAnnotator implements Annotator {
+public class DeltemplateIdentifierAnnotator extends SoyAnnotator {
 
   @Override
-  public void annotate(@NotNull PsiElement psiElement, @NotNull AnnotationHolder annotationHolder) {
+  protected void doAnnotate(
+      @NotNull PsiElement psiElement, @NotNull AnnotationHolder annotationHolder) {
     if (psiElement instanceof SoyTemplateBlock) {
       SoyTemplateBlock block = (SoyTemplateBlock) psiElement;
       if (block.isDelegate() && block.getName() != null && block.getName().startsWith(".")) {
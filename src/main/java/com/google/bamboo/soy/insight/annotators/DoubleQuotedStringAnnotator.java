@@ -17,15 +17,15 @@ package com.google.bamboo.soy.insight.annotators;
 import com.google.bamboo.soy.parser.SoyAnyStringLiteral;
 import com.google.bamboo.soy.parser.SoyExpr;
 import com.intellij.lang.annotation.AnnotationHolder;
-import com.intellij.lang.annotation.Annotator;
 import com.intellij.lang.annotation.HighlightSeverity;
 import com.intellij.psi.PsiElement;
 import org.jetbrains.annotations.NotNull;
 
-public class DoubleQuotedStringAnnotator implements Annotator {
+public class DoubleQuotedStringAnnotator extends SoyAnnotator {
 
   @Override
-  public void annotate(@NotNull PsiElement psiElement, @NotNull AnnotationHolder annotationHolder) {
+  protected void doAnnotate(
+      @NotNull PsiElement psiElement, @NotNull AnnotationHolder annotationHolder) {
     if (psiElement instanceof SoyAnyStringLiteral
         && psiElement.getParent() instanceof SoyExpr
         && psiElement.getText().startsWith("\"")) {
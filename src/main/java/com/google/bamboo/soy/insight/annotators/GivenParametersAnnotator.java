@@ -15,104 +15,40 @@
 package com.google.bamboo.soy.insight.annotators;
 
 import com.google.bamboo.soy.elements.CallStatementElement;
-import com.google.bamboo.soy.lang.ParamUtils;
-import com.google.bamboo.soy.lang.Parameter;
 import com.google.bamboo.soy.lang.ParameterSpecification;
-import com.google.bamboo.soy.lang.TemplateNameUtils;
-import com.google.bamboo.soy.parser.SoyTemplateBlock;
-import com.google.bamboo.soy.parser.SoyTemplateReferenceIdentifier;
+import com.google.bamboo.soy.lang.SoyFileModel;
+import com.google.bamboo.soy.lang.SoyFileModel.CallSite;
 import com.intellij.lang.annotation.AnnotationHolder;
-import com.intellij.lang.annotation.Annotator;
 import com.intellij.lang.annotation.HighlightSeverity;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.util.PsiTreeUtil;
-import java.util.Collection;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 import org.jetbrains.annotations.NotNull;
 
-public class GivenParametersAnnotator implements Annotator {
+public class GivenParametersAnnotator extends SoyAnnotator {
 
   @Override
-  public void annotate(@NotNull PsiElement psiElement, @NotNull AnnotationHolder annotationHolder) {
+  protected void doAnnotate(
+      @NotNull PsiElement psiElement, @NotNull AnnotationHolder annotationHolder) {
     if (psiElement instanceof CallStatementElement) {
-      CallStatementElement statement = (CallStatementElement) psiElement;
-
-      if (statement.getBeginCall().getAttributeKeyValuePairList().stream()
-          .map(pair -> pair.getAttributeNameIdentifier().getText())
-          .anyMatch("data"::equals)) {
-        return;
-      }
-
-      PsiElement identifier =
-          PsiTreeUtil.findChildOfType(statement, SoyTemplateReferenceIdentifier.class);
-
-      if (identifier == null) {
+      // Unknown template invocations and calls passing data="..." are not checked.
+      CallSite callSite = SoyFileModel.getCallSite((CallStatementElement) psiElement);
+      if (callSite == null || !callSite.isCheckable()) {
         return;
       }
 
-      Collection<ParameterSpecification> givenParameters = ParamUtils.getGivenParameters(statement);
-      SoyTemplateBlock templateBlock =
-          TemplateNameUtils.findTemplateDeclaration(statement, identifier.getText());
-      if (templateBlock == null) {
-        // Do not check parameters for an unknown template invocation.
-        return;
+      List<String> missingParameterNames = callSite.getMissingParameterNames();
+      if (!missingParameterNames.isEmpty()) {
+        annotationHolder.newAnnotation(HighlightSeverity.ERROR,
+                "Missing required parameters: " + String.join(",", missingParameterNames))
+            .range(callSite.identifier).create();
       }
-
-      List<Parameter> declaredParameters = templateBlock.getParameters();
-      checkMissingRequiredParameters(
-          annotationHolder, identifier, givenParameters, declaredParameters);
-      checkUnknownParameters(annotationHolder, givenParameters, declaredParameters);
-      checkDuplicateParameters(annotationHolder, givenParameters);
-    }
-  }
-
-  private static void checkMissingRequiredParameters(
-      @NotNull AnnotationHolder annotationHolder,
-      PsiElement identifier,
-      Collection<ParameterSpecification> givenParameters,
-      List<Parameter> declaredParameters) {
-
-    List<String> requiredParameterNames =
-        declaredParameters.stream()
-            .filter(var -> !var.isOptional)
-            .map(var -> var.name)
-            .collect(Collectors.toList());
-    List<String> givenParameterNames =
-        givenParameters.stream().map(ParameterSpecification::name).collect(Collectors.toList());
-
-    if (!givenParameterNames.containsAll(requiredParameterNames)) {
-      requiredParameterNames.removeAll(givenParameterNames);
-      annotationHolder.newAnnotation(HighlightSeverity.ERROR,
-              "Missing required parameters: " + String.join(",", requiredParameterNames))
-          .range(identifier).create();
-    }
-  }
-
-  private static void checkUnknownParameters(
-      @NotNull AnnotationHolder annotationHolder,
-      Collection<ParameterSpecification> givenParameters,
-      List<Parameter> declaredParameters) {
-    Set<String> declaredParameterNames =
-        declaredParameters.stream().map(var -> var.name).collect(Collectors.toSet());
-    for (ParameterSpecification givenParameter : givenParameters) {
-      if (!declaredParameterNames.contains(givenParameter.name())) {
+      for (ParameterSpecification parameter : callSite.getUnknownParameters()) {
         annotationHolder.newAnnotation(HighlightSeverity.ERROR,
-            "Unknown parameter specified").range(givenParameter.identifier()).create();
+            "Unknown parameter specified").range(parameter.identifier()).create();
       }
-    }
-  }
-
-  private static void checkDuplicateParameters(
-      @NotNull AnnotationHolder annotationHolder,
-      Collection<ParameterSpecification> givenParameters) {
-    Set<String> seenNames = new HashSet<>();
-    for (ParameterSpecification givenParameter : givenParameters) {
-      if (!seenNames.add(givenParameter.name())) {
+      for (ParameterSpecification parameter : callSite.getDuplicateParameters()) {
         annotationHolder.newAnnotation(HighlightSeverity.ERROR,
-            "Duplicate parameter specified").range(givenParameter.identifier()).create();
+            "Duplicate parameter specified").range(parameter.identifier()).create();
       }
     }
   }
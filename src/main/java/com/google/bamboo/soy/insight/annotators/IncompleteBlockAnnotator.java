@@ -17,15 +17,15 @@ package com.google.bamboo.soy.insight.annotators;
 import com.google.bamboo.soy.elements.ChoiceClauseElement;
 import com.google.bamboo.soy.elements.TagBlockElement;
 import com.intellij.lang.annotation.AnnotationHolder;
-import com.intellij.lang.annotation.Annotator;
 import com.intellij.lang.annotation.HighlightSeverity;
 import com.intellij.psi.PsiElement;
 import org.jetbrains.annotations.NotNull;
 
-public class IncompleteBlockAnnotator implements Annotator {
+public class IncompleteBlockAnnotator extends SoyAnnotator {
 
   @Override
-  public void annotate(@NotNull PsiElement psiElement, @NotNull AnnotationHolder annotationHolder) {
+  protected void doAnnotate(
+      @NotNull PsiElement psiElement, @NotNull AnnotationHolder annotationHolder) {
     if (psiElement instanceof TagBlockElement) {
       TagBlockElement block = (TagBlockElement) psiElement;
       if (block.isIncomplete() && !(block instanceof ChoiceClauseElement)) {
@@ -0,0 +1,39 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.insight.annotators;
+
+import com.google.bamboo.soy.diagnostics.SoyTimings;
+import com.google.bamboo.soy.file.LargeFileMode;
+import com.intellij.lang.annotation.AnnotationHolder;
+import com.intellij.lang.annotation.Annotator;
+import com.intellij.psi.PsiElement;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The base class of the Soy annotators, which records their timings and leaves large files to the
+ * lexer based highlighting.
+ */
+public abstract class SoyAnnotator implements Annotator {
+
+  @Override
+  public final void annotate(@NotNull PsiElement element, @NotNull AnnotationHolder holder) {
+    if (LargeFileMode.isLargeFile(element.getContainingFile())) {
+      return;
+    }
+    SoyTimings.measure(getClass().getSimpleName(), element, () -> doAnnotate(element, holder));
+  }
+
+  protected abstract void doAnnotate(@NotNull PsiElement element, @NotNull AnnotationHolder holder);
+}
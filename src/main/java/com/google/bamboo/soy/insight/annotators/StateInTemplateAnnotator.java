@@ -14,23 +14,22 @@
 
 package com.google.bamboo.soy.insight.annotators;
 
-import com.google.bamboo.soy.elements.impl.TemplateBlockMixin;
+import com.google.bamboo.soy.lang.SoyFileModel;
+import com.google.bamboo.soy.lang.SoyFileModel.TemplateInfo;
 import com.google.bamboo.soy.parser.SoyAtStateSingle;
 import com.intellij.lang.annotation.AnnotationHolder;
-import com.intellij.lang.annotation.Annotator;
 import com.intellij.lang.annotation.HighlightSeverity;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.util.PsiTreeUtil;
 import org.jetbrains.annotations.NotNull;
 
-public class StateInTemplateAnnotator implements Annotator {
+public class StateInTemplateAnnotator extends SoyAnnotator {
 
   @Override
-  public void annotate(@NotNull PsiElement element, @NotNull AnnotationHolder annotationHolder) {
+  protected void doAnnotate(
+      @NotNull PsiElement element, @NotNull AnnotationHolder annotationHolder) {
     if (element instanceof SoyAtStateSingle) {
-      TemplateBlockMixin templateBlock = PsiTreeUtil
-          .getParentOfType(element, TemplateBlockMixin.class);
-      if (templateBlock == null || !templateBlock.isElementBlock()) {
+      TemplateInfo template = SoyFileModel.getEnclosingTemplate(element);
+      if (template == null || !template.isElementBlock) {
         annotationHolder.newAnnotation(HighlightSeverity.ERROR,
                 "@state is only allowed inside an {element} block.")
             .range(((SoyAtStateSingle) element).getTagNameToken()).create();
@@ -18,15 +18,15 @@ import com.google.bamboo.soy.elements.CallStatementElement;
 import com.google.bamboo.soy.elements.ChoiceStatementElement;
 import com.google.bamboo.soy.parser.SoyUnexpectedStatements;
 import com.intellij.lang.annotation.AnnotationHolder;
-import com.intellij.lang.annotation.Annotator;
 import com.intellij.lang.annotation.HighlightSeverity;
 import com.intellij.psi.PsiElement;
 import org.jetbrains.annotations.NotNull;
 
-public class UnexpectedStatementsAnnotator implements Annotator {
+public class UnexpectedStatementsAnnotator extends SoyAnnotator {
 
   @Override
-  public void annotate(@NotNull PsiElement psiElement, @NotNull AnnotationHolder annotationHolder) {
+  protected void doAnnotate(
+      @NotNull PsiElement psiElement, @NotNull AnnotationHolder annotationHolder) {
     if (psiElement instanceof SoyUnexpectedStatements) {
       PsiElement parent = psiElement.getParent();
       if (parent instanceof CallStatementElement) {
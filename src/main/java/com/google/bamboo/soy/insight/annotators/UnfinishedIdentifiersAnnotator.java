@@ -17,15 +17,15 @@ package com.google.bamboo.soy.insight.annotators;
 import com.google.bamboo.soy.parser.SoyFieldAccessOrMethodCallExpr;
 import com.google.bamboo.soy.parser.SoyVariableReferenceIdentifier;
 import com.intellij.lang.annotation.AnnotationHolder;
-import com.intellij.lang.annotation.Annotator;
 import com.intellij.lang.annotation.HighlightSeverity;
 import com.intellij.psi.PsiElement;
 import org.jetbrains.annotations.NotNull;
 
-public class UnfinishedIdentifiersAnnotator implements Annotator {
+public class UnfinishedIdentifiersAnnotator extends SoyAnnotator {
 
   @Override
-  public void annotate(@NotNull PsiElement psiElement, @NotNull AnnotationHolder annotationHolder) {
+  protected void doAnnotate(
+      @NotNull PsiElement psiElement, @NotNull AnnotationHolder annotationHolder) {
     if (psiElement instanceof SoyVariableReferenceIdentifier && psiElement.getText().equals("$")) {
       annotationHolder.newAnnotation(HighlightSeverity.ERROR, "Variable name expected.").create();
     } else if (psiElement instanceof SoyFieldAccessOrMethodCallExpr
@@ -16,7 +16,6 @@ package com.google.bamboo.soy.insight.annotators;
 
 import com.google.bamboo.soy.parser.SoyTypes;
 import com.intellij.lang.annotation.AnnotationHolder;
-import com.intellij.lang.annotation.Annotator;
 import com.intellij.lang.annotation.HighlightSeverity;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.PsiComment;
@@ -24,10 +23,11 @@ import com.intellij.psi.PsiElement;
 import com.intellij.psi.tree.IElementType;
 import org.jetbrains.annotations.NotNull;
 
-public class UnterminatedCommentAnnotator implements Annotator {
+public class UnterminatedCommentAnnotator extends SoyAnnotator {
 
   @Override
-  public void annotate(@NotNull PsiElement element, @NotNull AnnotationHolder annotationHolder) {
+  protected void doAnnotate(
+      @NotNull PsiElement element, @NotNull AnnotationHolder annotationHolder) {
     if (element instanceof PsiComment) {
       IElementType commentTokenType = ((PsiComment) element).getTokenType();
       if (commentTokenType != SoyTypes.DOC_COMMENT_BLOCK
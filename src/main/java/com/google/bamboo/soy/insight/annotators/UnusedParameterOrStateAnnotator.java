@@ -14,68 +14,42 @@
 
 package com.google.bamboo.soy.insight.annotators;
 
-import com.google.bamboo.soy.elements.IdentifierElement;
 import com.google.bamboo.soy.elements.impl.TemplateBlockMixin;
 import com.google.bamboo.soy.insight.quickfix.RemoveUnusedParameterFix;
 import com.google.bamboo.soy.insight.quickfix.RemoveUnusedStateVarFix;
-import com.google.bamboo.soy.lang.ParamUtils;
 import com.google.bamboo.soy.lang.Parameter;
+import com.google.bamboo.soy.lang.SoyFileModel;
+import com.google.bamboo.soy.lang.SoyFileModel.TemplateInfo;
 import com.google.bamboo.soy.lang.Variable;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Streams;
 import com.intellij.lang.annotation.AnnotationHolder;
-import com.intellij.lang.annotation.Annotator;
 import com.intellij.lang.annotation.HighlightSeverity;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.PsiReference;
-import com.intellij.psi.util.PsiTreeUtil;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.Set;
 import org.jetbrains.annotations.NotNull;
 
-public class UnusedParameterOrStateAnnotator implements Annotator {
+public class UnusedParameterOrStateAnnotator extends SoyAnnotator {
 
   @Override
-  public void annotate(@NotNull PsiElement element, @NotNull AnnotationHolder annotationHolder) {
+  protected void doAnnotate(
+      @NotNull PsiElement element, @NotNull AnnotationHolder annotationHolder) {
     if (!(element instanceof TemplateBlockMixin)) {
       return;
     }
 
-    // Abort if values are passed with data="...", parameters are sometimes defined for the sake
-    // of added documentation even when not technically used directly in the template body.
-    if (element.getText().contains("data=")) {
+    TemplateInfo template = SoyFileModel.getEnclosingTemplate(element);
+    if (template == null) {
       return;
     }
 
-    Collection<? extends Variable> variables = Streams
-        .concat(ParamUtils.getParamDefinitions(element).stream(),
-            ParamUtils.getStateDefinitions(element).stream()).collect(
-            ImmutableList.toImmutableList());
-
-    Collection<IdentifierElement> childrenOfType = PsiTreeUtil.findChildrenOfType(element,
-        IdentifierElement.class);
-    Set<String> usedVariableIdentifiers =
-        childrenOfType
-            .stream()
-            .map(IdentifierElement::getReferences)
-            .flatMap(Arrays::stream)
-            .map(PsiReference::getCanonicalText)
-            .collect(ImmutableSet.toImmutableSet());
-
-    for (Variable variable : variables) {
-      if (!usedVariableIdentifiers.contains(variable.name)) {
-        annotationHolder
-            .newAnnotation(((TemplateBlockMixin) element).isElementBlock() ?
-                    HighlightSeverity.WEAK_WARNING : HighlightSeverity.ERROR,
-                variableType(variable) + " " + variable.name + " is unused.")
-            .range(variable.element.getTextRange())
-            .withFix(isParameter(variable)
-                ? new RemoveUnusedParameterFix(variable.name)
-                : new RemoveUnusedStateVarFix(variable.name))
-            .create();
-      }
+    for (Variable variable : template.getUnusedVariables()) {
+      annotationHolder
+          .newAnnotation(template.isElementBlock ?
+                  HighlightSeverity.WEAK_WARNING : HighlightSeverity.ERROR,
+              variableType(variable) + " " + variable.name + " is unused.")
+          .range(variable.getElement().getTextRange())
+          .withFix(isParameter(variable)
+              ? new RemoveUnusedParameterFix(variable.name)
+              : new RemoveUnusedStateVarFix(variable.name))
+          .create();
     }
   }
 
@@ -19,15 +19,14 @@ import com.google.bamboo.soy.parser.SoyParamDefinitionIdentifier;
 import com.google.bamboo.soy.parser.SoyVariableDefinitionIdentifier;
 import com.google.bamboo.soy.parser.SoyVariableReferenceIdentifier;
 import com.intellij.lang.annotation.AnnotationHolder;
-import com.intellij.lang.annotation.Annotator;
 import com.intellij.lang.annotation.HighlightSeverity;
 import com.intellij.psi.PsiElement;
 import org.jetbrains.annotations.NotNull;
 
-public class VariableHighlightAnnotator implements Annotator {
+public class VariableHighlightAnnotator extends SoyAnnotator {
 
   @Override
-  public void annotate(@NotNull PsiElement element, @NotNull AnnotationHolder holder) {
+  protected void doAnnotate(@NotNull PsiElement element, @NotNull AnnotationHolder holder) {
     if (element instanceof SoyVariableReferenceIdentifier
         || element instanceof SoyVariableDefinitionIdentifier
         || element instanceof SoyParamDefinitionIdentifier) {
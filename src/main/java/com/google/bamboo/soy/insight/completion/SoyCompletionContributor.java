@@ -48,6 +48,7 @@ import com.google.bamboo.soy.parser.SoyMapType;
 import com.google.bamboo.soy.parser.SoyNamespaceIdentifier;
 import com.google.bamboo.soy.parser.SoyParamSpecificationIdentifier;
 import com.google.bamboo.soy.parser.SoyPrintStatement;
+import com.google.bamboo.soy.parser.SoyTemplateBlock;
 import com.google.bamboo.soy.parser.SoyTemplateDefinitionIdentifier;
 import com.google.bamboo.soy.parser.SoyTemplateReferenceIdentifier;
 import com.google.bamboo.soy.parser.SoyTypes;
@@ -56,11 +57,15 @@ import com.google.bamboo.soy.parser.SoyVariableReferenceIdentifier;
 import com.google.common.collect.ImmutableList;
 import com.intellij.codeInsight.completion.CompletionContributor;
 import com.intellij.codeInsight.completion.CompletionParameters;
-import com.intellij.codeInsight.completion.CompletionProvider;
 import com.intellij.codeInsight.completion.CompletionResultSet;
 import com.intellij.codeInsight.completion.CompletionType;
+import com.intellij.codeInsight.completion.PrefixMatcher;
 import com.intellij.codeInsight.lookup.LookupElement;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
+import com.intellij.codeInsight.lookup.LookupElementPresentation;
+import com.intellij.codeInsight.lookup.LookupElementRenderer;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiWhiteSpace;
 import com.intellij.psi.util.PsiTreeUtil;
@@ -144,9 +149,9 @@ public class SoyCompletionContributor extends CompletionContributor {
     extend(
         CompletionType.BASIC,
         psiElement().andOr(psiElement().inside(SoyBeginTemplate.class)),
-        new CompletionProvider<CompletionParameters>() {
+        new TimedCompletionProvider("template definition keywords") {
           @Override
-          protected void addCompletions(
+          protected void addTimedCompletions(
               @NotNull CompletionParameters completionParameters,
               @NotNull ProcessingContext processingContext,
               @NotNull CompletionResultSet completionResultSet) {
@@ -172,9 +177,9 @@ public class SoyCompletionContributor extends CompletionContributor {
                 psiElement().inside(SoyBeginParamTag.class),
                 psiElement().inside(SoyBeginTemplate.class),
                 psiElement().inside(SoyBeginLet.class)),
-        new CompletionProvider<CompletionParameters>() {
+        new TimedCompletionProvider("kind keyword") {
           @Override
-          protected void addCompletions(
+          protected void addTimedCompletions(
               @NotNull CompletionParameters completionParameters,
               @NotNull ProcessingContext processingContext,
               @NotNull CompletionResultSet completionResultSet) {
@@ -200,9 +205,9 @@ public class SoyCompletionContributor extends CompletionContributor {
                 psiElement().inside(SoyBeginParamTag.class).afterLeaf("="),
                 psiElement().inside(SoyBeginTemplate.class).afterLeaf("="),
                 psiElement().inside(SoyBeginLet.class).afterLeaf("=")),
-        new CompletionProvider<CompletionParameters>() {
+        new TimedCompletionProvider("kind literals") {
           @Override
-          protected void addCompletions(
+          protected void addTimedCompletions(
               @NotNull CompletionParameters completionParameters,
               @NotNull ProcessingContext processingContext,
               @NotNull CompletionResultSet completionResultSet) {
@@ -240,9 +245,9 @@ public class SoyCompletionContributor extends CompletionContributor {
                             .afterLeafSkipping(
                                 psiElement(PsiWhiteSpace.class),
                                 or(psiElement(SoyTypes.EQUAL), psiElement(SoyTypes.COLON_EQUAL))))),
-        new CompletionProvider<CompletionParameters>() {
+        new TimedCompletionProvider("variable names") {
           @Override
-          protected void addCompletions(
+          protected void addTimedCompletions(
               @NotNull CompletionParameters completionParameters,
               @NotNull ProcessingContext processingContext,
               @NotNull CompletionResultSet completionResultSet) {
@@ -326,9 +331,9 @@ public class SoyCompletionContributor extends CompletionContributor {
     extend(
         CompletionType.BASIC,
         psiElement().inside(SoyBeginCall.class),
-        new CompletionProvider<CompletionParameters>() {
+        new TimedCompletionProvider("local template names") {
           @Override
-          protected void addCompletions(
+          protected void addTimedCompletions(
               @NotNull CompletionParameters completionParameters,
               @NotNull ProcessingContext processingContext,
               @NotNull CompletionResultSet completionResultSet) {
@@ -350,9 +355,9 @@ public class SoyCompletionContributor extends CompletionContributor {
     extend(
         CompletionType.BASIC,
         psiElement().inside(SoyBeginCall.class),
-        new CompletionProvider<CompletionParameters>() {
+        new TimedCompletionProvider("template name fragments") {
           @Override
-          protected void addCompletions(
+          protected void addTimedCompletions(
               @NotNull CompletionParameters completionParameters,
               @NotNull ProcessingContext processingContext,
               @NotNull CompletionResultSet completionResultSet) {
@@ -371,27 +376,74 @@ public class SoyCompletionContributor extends CompletionContributor {
             boolean isDelegate = callStatement != null && callStatement.isDelegate();
 
             String prefix = identifier.replaceFirst(INTELLIJ_IDEA_RULEZZZ, "");
-            Collection<TemplateNameUtils.Fragment> completions =
-                TemplateNameUtils.getPossibleNextIdentifierFragments(
-                    completionParameters.getPosition().getProject(),
-                    identifierElement,
-                    prefix,
-                    isDelegate);
-
-            completionResultSet.addAllElements(
-                completions.stream()
-                    .map(
-                        (fragment) ->
-                            LookupElementBuilder.create(fragment.text)
-                                .withTypeText(
-                                    fragment.isFinalFragment
-                                        ? (isDelegate ? "Delegate template" : "Template")
-                                        : "Partial namespace"))
-                    .collect(Collectors.toList()));
+            PrefixMatcher matcher = completionResultSet.getPrefixMatcher();
+            // Fragments stream from the name trie in alphabetical order, so the first items show
+            // up without collecting every template of the namespace. Looking up the declaration
+            // for the type and tail text is left to the rendering of the visible items.
+            TemplateNameUtils.processPossibleNextIdentifierFragments(
+                completionParameters.getPosition().getProject(),
+                identifierElement,
+                prefix,
+                isDelegate,
+                (fragment) -> {
+                  ProgressManager.checkCanceled();
+                  if (completionResultSet.isStopped()) {
+                    return false;
+                  }
+                  if (matcher.prefixMatches(fragment.text)) {
+                    completionResultSet.addElement(
+                        fragment.isFinalFragment
+                            ? createTemplateLookupElement(
+                                identifierElement, fragment.text, isDelegate)
+                            : LookupElementBuilder.create(fragment.text)
+                                .withTypeText("Partial namespace"));
+                  }
+                  return true;
+                });
           }
         });
   }
 
+  /**
+   * Describes the template in the lookup list by its kind and parameters, read from the stub
+   * tree of the defining file. The declaration is only looked up once the item is rendered, so
+   * items that never show up in the list don't query the index.
+   */
+  private static LookupElement createTemplateLookupElement(
+      PsiElement identifierElement, String templateName, boolean isDelegate) {
+    Project project = identifierElement.getProject();
+    String fullyQualifiedName =
+        TemplateNameUtils.normalizeTemplateName(identifierElement, templateName);
+    String typeText = isDelegate ? "Delegate template" : "Template";
+    return LookupElementBuilder.create(templateName)
+        .withTypeText(typeText)
+        .withExpensiveRenderer(
+            new LookupElementRenderer<LookupElement>() {
+              @Override
+              public void renderElement(
+                  LookupElement element, LookupElementPresentation presentation) {
+                element.renderElement(presentation);
+                SoyTemplateBlock templateBlock =
+                    TemplateNameUtils.findTemplateDeclarationsByFullyQualifiedName(
+                            project, fullyQualifiedName)
+                        .stream()
+                        .findFirst()
+                        .orElse(null);
+                if (templateBlock == null) {
+                  return;
+                }
+                if (!templateBlock.getKind().equals("html")) {
+                  presentation.setTypeText(typeText + " (" + templateBlock.getKind() + ")");
+                }
+                String tailText =
+                    templateBlock.getParameters().stream()
+                        .map((param) -> param.isOptional ? param.name + "?" : param.name)
+                        .collect(Collectors.joining(", ", "(", ")"));
+                presentation.setTailText(tailText, true);
+              }
+            });
+  }
+
   /**
    * Complete fully qualified namespace fragments for alias declaration.
    */
@@ -399,9 +451,9 @@ public class SoyCompletionContributor extends CompletionContributor {
     extend(
         CompletionType.BASIC,
         psiElement().inside(SoyAliasBlock.class),
-        new CompletionProvider<CompletionParameters>() {
+        new TimedCompletionProvider("alias namespace fragments") {
           @Override
-          protected void addCompletions(
+          protected void addTimedCompletions(
               @NotNull CompletionParameters completionParameters,
               @NotNull ProcessingContext processingContext,
               @NotNull CompletionResultSet completionResultSet) {
@@ -439,9 +491,9 @@ public class SoyCompletionContributor extends CompletionContributor {
                 psiElement()
                     .afterLeafSkipping(
                         psiElement(PsiWhiteSpace.class), psiElement().withText("param"))),
-        new CompletionProvider<CompletionParameters>() {
+        new TimedCompletionProvider("parameter names") {
           @Override
-          protected void addCompletions(
+          protected void addTimedCompletions(
               @NotNull CompletionParameters completionParameters,
               @NotNull ProcessingContext processingContext,
               @NotNull CompletionResultSet completionResultSet) {
@@ -501,9 +553,9 @@ public class SoyCompletionContributor extends CompletionContributor {
                 // Map type literal.
                 psiElement().inside(SoyMapType.class).afterLeaf("<"),
                 psiElement().inside(SoyMapType.class).afterLeaf(",")),
-        new CompletionProvider<CompletionParameters>() {
+        new TimedCompletionProvider("parameter types") {
           @Override
-          protected void addCompletions(
+          protected void addTimedCompletions(
               @NotNull CompletionParameters completionParameters,
               @NotNull ProcessingContext processingContext,
               @NotNull CompletionResultSet completionResultSet) {
@@ -0,0 +1,48 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.insight.completion;
+
+import com.google.bamboo.soy.diagnostics.SoyTimings;
+import com.intellij.codeInsight.completion.CompletionParameters;
+import com.intellij.codeInsight.completion.CompletionProvider;
+import com.intellij.codeInsight.completion.CompletionResultSet;
+import com.intellij.util.ProcessingContext;
+import org.jetbrains.annotations.NotNull;
+
+/** A completion provider whose invocations are recorded by {@link SoyTimings} under its name. */
+abstract class TimedCompletionProvider extends CompletionProvider<CompletionParameters> {
+  private final String component;
+
+  TimedCompletionProvider(@NotNull String name) {
+    this.component = "Completion: " + name;
+  }
+
+  @Override
+  protected final void addCompletions(
+      @NotNull CompletionParameters completionParameters,
+      @NotNull ProcessingContext processingContext,
+      @NotNull CompletionResultSet completionResultSet) {
+    SoyTimings.measure(
+        component,
+        completionParameters.getPosition(),
+        () ->
+            addTimedCompletions(completionParameters, processingContext, completionResultSet));
+  }
+
+  protected abstract void addTimedCompletions(
+      @NotNull CompletionParameters completionParameters,
+      @NotNull ProcessingContext processingContext,
+      @NotNull CompletionResultSet completionResultSet);
+}
@@ -15,90 +15,81 @@
 package com.google.bamboo.soy.insight.documentation;
 
 import com.google.bamboo.soy.elements.TagElement;
-import com.google.bamboo.soy.parser.SoyTypes;
+import com.google.bamboo.soy.elements.TemplateDefinitionElement;
+import com.google.bamboo.soy.lang.DocCommentUtils;
+import com.google.bamboo.soy.lang.Parameter;
+import com.google.bamboo.soy.parser.SoyTemplateBlock;
 import com.intellij.lang.documentation.AbstractDocumentationProvider;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.fileEditor.FileDocumentManager;
-import com.intellij.psi.PsiComment;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.util.PsiTreeUtil;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import org.jetbrains.annotations.Contract;
-import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 public class SoyDocumentationProvider extends AbstractDocumentationProvider {
 
-  private static final int MAX_COMMENT_PREVIEW_LENGTH = 96;
-
-  private static String uncommentify(@NotNull String docComment) {
-    return docComment
-        .replaceFirst("^/\\*[* \\t\\n\\r]*", "")
-        .replaceAll("[* \\t\\n\\r]*\\*/$", "")
-        .replaceAll("\n[* \\t\\n\\r]*", "\n");
-  }
-
-  private static String produceCommentPreview(@NotNull String docComment) {
-    String preview = uncommentify(docComment);
-    // Drop everything starting from the first @param.
-    int firstAtParam = preview.indexOf("@param");
-    if (firstAtParam != -1) {
-      preview = preview.substring(0, firstAtParam);
-    }
-    // Drop newlines.
-    preview = preview.replaceAll("[\\n\\r\\f\\t ]+", " ");
-
-    if (preview.length() > MAX_COMMENT_PREVIEW_LENGTH) {
-      preview = preview.substring(0, MAX_COMMENT_PREVIEW_LENGTH);
-
-      int lastSpaceIndex = preview.lastIndexOf(" ");
-      // If this comment is entirely without whitespaces then it's a weird one so let's just return
-      // with it.
-      if (lastSpaceIndex == -1) {
-        return preview;
-      }
-
-      // If the last space is not at the end of the truncated part, then drop the partial word at
-      // end of the preview text.
-      if (lastSpaceIndex != preview.length() - 1) {
-        preview = preview.substring(0, lastSpaceIndex);
-      }
-
-      // If there is any sentence-delimiting punctuation in the preview then let's truncate after
-      // the first one.
-      Matcher endTokenMatcher = Pattern.compile("[:;.?!]").matcher(preview);
-      if (endTokenMatcher.matches()) {
-        preview = preview.substring(0, endTokenMatcher.start() + 1);
-      }
-      preview = preview + " [...]";
-    }
-    return preview;
-  }
-
-  @Contract("null -> false")
-  private static boolean isDocComment(PsiElement element) {
-    return element instanceof PsiComment
-        && ((PsiComment) element).getTokenType().equals(SoyTypes.DOC_COMMENT_BLOCK);
-  }
-
   @Nullable
   private static String getDocCommentForEnclosingTag(PsiElement element) {
-    PsiElement parentTag = PsiTreeUtil.findFirstParent(element, TagElement.class::isInstance);
-    return PsiTreeUtil.getChildrenOfTypeAsList(parentTag, PsiComment.class)
-        .stream()
-        .filter(SoyDocumentationProvider::isDocComment)
-        .findFirst()
-        .map(PsiElement::getText)
-        .orElse(null);
+    return DocCommentUtils.getDocComment(
+        PsiTreeUtil.findFirstParent(element, TagElement.class::isInstance));
   }
 
   @Nullable
   @Override
   public String getQuickNavigateInfo(PsiElement element, PsiElement originalElement) {
+    if (element instanceof TemplateDefinitionElement) {
+      SoyTemplateBlock templateBlock =
+          PsiTreeUtil.getStubOrPsiParentOfType(element, SoyTemplateBlock.class);
+      if (templateBlock != null) {
+        return buildTemplateSignature((TemplateDefinitionElement) element, templateBlock);
+      }
+    }
     return buildDoc(element, true);
   }
 
+  /**
+   * Describes the template from its stub, so that hovering a call does not load the AST of the
+   * file defining the template.
+   */
+  private static String buildTemplateSignature(
+      TemplateDefinitionElement definition, SoyTemplateBlock templateBlock) {
+    StringBuilder signature = new StringBuilder();
+    signature.append(templateBlock.isDelegate() ? "deltemplate " : "template ");
+    signature.append(definition.getFullyQualifiedName());
+    if (!templateBlock.getKind().equals("html")) {
+      signature.append(" kind=\"").append(templateBlock.getKind()).append("\"");
+    }
+    if (!templateBlock.isStrictHtml()) {
+      signature.append(" stricthtml=\"false\"");
+    }
+    if (templateBlock.isPrivate()) {
+      signature.append(" visibility=\"private\"");
+    }
+    for (Parameter parameter : templateBlock.getParameters()) {
+      signature.append("\n");
+      signature.append(parameter.isOptional ? "@param? " : "@param ");
+      signature.append(parameter.name);
+      if (!parameter.type.isEmpty()) {
+        signature.append(": ").append(parameter.type);
+      }
+      if (parameter.hasDefault) {
+        signature.append(" = ...");
+      }
+    }
+
+    StringBuilder navigateInfo = new StringBuilder();
+    navigateInfo.append("Defined at ");
+    navigateInfo.append(templateBlock.getContainingFile().getName());
+    navigateInfo.append("\n");
+    navigateInfo.append(StringUtil.escapeXmlEntities(signature.toString()));
+    if (!templateBlock.getDocSummary().isEmpty()) {
+      navigateInfo.append("\n\n");
+      navigateInfo.append(templateBlock.getDocSummary());
+    }
+    return navigateInfo.toString();
+  }
+
   @Override
   public @Nullable String generateDoc(
       PsiElement element,
@@ -133,7 +124,7 @@ public class SoyDocumentationProvider extends AbstractDocumentationProvider {
       if (addDefinitionLocation) {
         navigateInfo.append("\n\n");
       }
-      navigateInfo.append(produceCommentPreview(optDoc));
+      navigateInfo.append(DocCommentUtils.produceCommentPreview(optDoc));
     }
     return navigateInfo.length() > 0 ? navigateInfo.toString() : null;
   }
@@ -0,0 +1,200 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.insight.folding;
+
+import com.google.bamboo.soy.lexer.SoyLexer;
+import com.google.bamboo.soy.lexer.SoyTokenTypes;
+import com.google.bamboo.soy.parser.SoyTypes;
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.folding.FoldingDescriptor;
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.TokenSet;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Derives the fold regions of templates, call blocks and doc comments from the tokens of a file.
+ *
+ * <p>The regions approximate those built from the PSI: doc comments are folded when they directly
+ * precede a complete template or a parameter or state declaration, and call blocks left open when
+ * their template closes are dropped. All regions are attached to the file node, which doesn't
+ * require parsing the file, and carry their placeholder text.
+ */
+class LexerFoldRegions {
+  private static final TokenSet OPENING_BRACES =
+      TokenSet.create(SoyTypes.LBRACE, SoyTypes.LBRACE_LBRACE);
+  private static final TokenSet CLOSING_TAG_BRACES =
+      TokenSet.create(SoyTypes.LBRACE_SLASH, SoyTypes.LBRACE_LBRACE_SLASH);
+  private static final TokenSet TAG_ENDS =
+      TokenSet.create(
+          SoyTypes.RBRACE,
+          SoyTypes.RBRACE_RBRACE,
+          SoyTypes.SLASH_RBRACE,
+          SoyTypes.SLASH_RBRACE_RBRACE);
+  private static final TokenSet SELF_CLOSING_TAG_ENDS =
+      TokenSet.create(SoyTypes.SLASH_RBRACE, SoyTypes.SLASH_RBRACE_RBRACE);
+  private static final TokenSet TEMPLATE_KEYWORDS =
+      TokenSet.create(SoyTypes.TEMPLATE, SoyTypes.DELTEMPLATE, SoyTypes.ELEMENT);
+  private static final TokenSet CALL_KEYWORDS = TokenSet.create(SoyTypes.CALL, SoyTypes.DELCALL);
+  private static final TokenSet DECLARATION_KEYWORDS =
+      TokenSet.create(SoyTypes.AT_PARAM, SoyTypes.AT_PARAM_OPT, SoyTypes.AT_STATE);
+
+  private final ASTNode fileNode;
+  private final CharSequence text;
+  private final List<FoldingDescriptor> descriptors;
+  private final Lexer lexer = new SoyLexer();
+
+  // The multiline doc comment right before the current token, if any.
+  @Nullable private TextRange docComment;
+
+  // The template being scanned, if any.
+  @Nullable private Tag template;
+  @Nullable private TextRange templateDocComment;
+  private final Deque<Tag> calls = new ArrayDeque<>();
+
+  private LexerFoldRegions(
+      ASTNode fileNode, CharSequence text, List<FoldingDescriptor> descriptors) {
+    this.fileNode = fileNode;
+    this.text = text;
+    this.descriptors = descriptors;
+  }
+
+  static void collect(ASTNode fileNode, CharSequence text, List<FoldingDescriptor> descriptors) {
+    new LexerFoldRegions(fileNode, text, descriptors).collect();
+  }
+
+  private void collect() {
+    lexer.start(text);
+    while (lexer.getTokenType() != null) {
+      IElementType token = lexer.getTokenType();
+      if (token == SoyTypes.DOC_COMMENT_BLOCK) {
+        TextRange range = new TextRange(lexer.getTokenStart(), lexer.getTokenEnd());
+        docComment = SoyFoldingBuilder.isMultiline(range.subSequence(text)) ? range : null;
+        lexer.advance();
+      } else if (SoyTokenTypes.WHITE_SPACES.contains(token)) {
+        lexer.advance();
+      } else if (OPENING_BRACES.contains(token)) {
+        processOpeningTag();
+      } else if (CLOSING_TAG_BRACES.contains(token)) {
+        processClosingTag();
+      } else {
+        docComment = null;
+        lexer.advance();
+      }
+    }
+  }
+
+  private void processOpeningTag() {
+    int start = lexer.getTokenStart();
+    IElementType keyword = advanceToKeyword();
+    if (TEMPLATE_KEYWORDS.contains(keyword)) {
+      // Templates don't nest, a template opened before was left incomplete.
+      calls.clear();
+      template = scanTag(start, keyword);
+      templateDocComment = docComment;
+    } else if (CALL_KEYWORDS.contains(keyword)) {
+      Tag call = scanTag(start, keyword);
+      if (call != null && !call.isSelfClosing) {
+        calls.push(call);
+      }
+    } else if (DECLARATION_KEYWORDS.contains(keyword) && docComment != null) {
+      addComment(docComment);
+    }
+    docComment = null;
+  }
+
+  private void processClosingTag() {
+    int start = lexer.getTokenStart();
+    IElementType keyword = advanceToKeyword();
+    Tag closedTag = scanTag(start, keyword);
+    if (closedTag != null && !calls.isEmpty() && calls.peek().keyword == keyword) {
+      addBlock(calls.pop(), closedTag);
+    } else if (closedTag != null && template != null && template.keyword == keyword) {
+      if (templateDocComment != null) {
+        addComment(templateDocComment);
+      }
+      addBlock(template, closedTag);
+      template = null;
+      calls.clear();
+    }
+    docComment = null;
+  }
+
+  /** Advances past the brace and any whitespace, returning the token following them. */
+  @Nullable
+  private IElementType advanceToKeyword() {
+    lexer.advance();
+    while (SoyTokenTypes.WHITE_SPACES.contains(lexer.getTokenType())) {
+      lexer.advance();
+    }
+    return lexer.getTokenType();
+  }
+
+  /** Advances past the end of the current tag, returning null if the tag is not closed. */
+  @Nullable
+  private Tag scanTag(int start, @Nullable IElementType keyword) {
+    for (IElementType token = lexer.getTokenType(); token != null; token = lexer.getTokenType()) {
+      if (OPENING_BRACES.contains(token) || CLOSING_TAG_BRACES.contains(token)) {
+        // A new tag starts before this one is closed.
+        return null;
+      }
+      lexer.advance();
+      if (TAG_ENDS.contains(token)) {
+        return new Tag(
+            keyword,
+            new TextRange(start, lexer.getTokenStart()),
+            SELF_CLOSING_TAG_ENDS.contains(token));
+      }
+    }
+    return null;
+  }
+
+  private void addBlock(Tag openingTag, Tag closingTag) {
+    TextRange range =
+        new TextRange(openingTag.range.getStartOffset(), closingTag.range.getEndOffset());
+    String placeholder =
+        SoyFoldingBuilder.normalizePlaceHolderText(openingTag.getText(text))
+            + "..."
+            + SoyFoldingBuilder.normalizePlaceHolderText(closingTag.getText(text));
+    descriptors.add(new FoldingDescriptor(fileNode, range, null, placeholder));
+  }
+
+  private void addComment(TextRange range) {
+    String placeholder =
+        SoyFoldingBuilder.buildCommentPlaceholderText(range.subSequence(text).toString());
+    descriptors.add(
+        new FoldingDescriptor(fileNode, range, null, placeholder == null ? "{...}" : placeholder));
+  }
+
+  private static class Tag {
+    @Nullable final IElementType keyword;
+    final TextRange range;
+    final boolean isSelfClosing;
+
+    Tag(@Nullable IElementType keyword, TextRange range, boolean isSelfClosing) {
+      this.keyword = keyword;
+      this.range = range;
+      this.isSelfClosing = isSelfClosing;
+    }
+
+    String getText(CharSequence fileText) {
+      return range.subSequence(fileText).toString();
+    }
+  }
+}
@@ -14,28 +14,39 @@
 
 package com.google.bamboo.soy.insight.folding;
 
+import com.google.bamboo.soy.diagnostics.SoyTimings;
 import com.google.bamboo.soy.elements.*;
+import com.google.bamboo.soy.file.LargeFileMode;
 import com.google.bamboo.soy.file.SoyFile;
 import com.google.bamboo.soy.parser.SoyAtParamSingle;
 import com.google.bamboo.soy.parser.SoyAtStateSingle;
 import com.google.bamboo.soy.parser.SoyEndTag;
 import com.google.bamboo.soy.parser.SoyTemplateBlock;
 import com.intellij.lang.ASTNode;
-import com.intellij.lang.folding.CustomFoldingBuilder;
+import com.intellij.lang.folding.FoldingBuilderEx;
 import com.intellij.lang.folding.FoldingDescriptor;
 import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiComment;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.impl.source.tree.LazyParseableElement;
 import com.intellij.psi.util.PsiTreeUtil;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-public class SoyFoldingBuilder extends CustomFoldingBuilder {
+/**
+ * Folds templates, call blocks and multiline doc comments.
+ *
+ * <p>Quick folding of an unparsed file, e.g. when it is opened, is derived from a single lexer
+ * pass by {@link LexerFoldRegions} so that the editor doesn't wait for the parser. The regions are
+ * replaced by the precise ones from the PSI once folding is updated in the background.
+ */
+public class SoyFoldingBuilder extends FoldingBuilderEx {
 
   private static final int MAX_PLACEHOLDER_LENGTH = 50;
   private static final Pattern BLOCK_COMMENT_PATTERN =
@@ -46,13 +57,37 @@ public class SoyFoldingBuilder extends CustomFoldingBuilder {
       Pattern.compile("[\\r\\n]", Pattern.DOTALL);
   private static final Pattern BLOCK_COMMENT_WHITESPACE = Pattern.compile("\\s+", Pattern.DOTALL);
 
+  @NotNull
   @Override
-  protected void buildLanguageFoldRegions(
-      @NotNull List<FoldingDescriptor> descriptors,
-      @NotNull PsiElement root,
-      @NotNull Document document,
-      boolean quick) {
+  public FoldingDescriptor[] buildFoldRegions(
+      @NotNull PsiElement root, @NotNull Document document, boolean quick) {
+    List<FoldingDescriptor> descriptors = new ArrayList<>();
+    if (quick && root instanceof SoyFile && !isParsed(root.getNode())) {
+      SoyTimings.measure(
+          "Quick folding",
+          root,
+          () -> LexerFoldRegions.collect(root.getNode(), document.getCharsSequence(), descriptors));
+    } else {
+      SoyTimings.measure("Folding", root, () -> collectFoldRegions(descriptors, root));
+    }
+    return descriptors.toArray(FoldingDescriptor.EMPTY);
+  }
+
+  private static boolean isParsed(@Nullable ASTNode node) {
+    return !(node instanceof LazyParseableElement) || ((LazyParseableElement) node).isParsed();
+  }
+
+  private static void collectFoldRegions(
+      @NotNull List<FoldingDescriptor> descriptors, @NotNull PsiElement root) {
     PsiElement toVisit = (root instanceof SoyFile) ? root.getFirstChild() : root;
+    if (LargeFileMode.isLargeFile(root.getContainingFile())) {
+      // Only fold the top-level templates, without walking their contents.
+      for (SoyTemplateBlock block :
+          PsiTreeUtil.getChildrenOfTypeAsList(toVisit, SoyTemplateBlock.class)) {
+        processTagBlockElement(block, descriptors);
+      }
+      return;
+    }
     toVisit.accept(
         new SoyRecursiveElementVisitor() {
           @Override
@@ -98,12 +133,15 @@ public class SoyFoldingBuilder extends CustomFoldingBuilder {
 
   private static void maybeAddDescriptorForDocComment(
       @Nullable PsiComment commentElement, @NotNull List<FoldingDescriptor> descriptors) {
-    if (commentElement != null
-        && BLOCK_COMMENT_NEWLINE_PATTERN.matcher(commentElement.getText()).find()) {
+    if (commentElement != null && isMultiline(commentElement.getText())) {
       descriptors.add(new FoldingDescriptor(commentElement, commentElement.getTextRange()));
     }
   }
 
+  static boolean isMultiline(CharSequence commentText) {
+    return BLOCK_COMMENT_NEWLINE_PATTERN.matcher(commentText).find();
+  }
+
   @Nullable
   private static PsiComment getCommentElement(TagBlockElement element) {
     TagElement openingTag = element.getOpeningTag();
@@ -127,7 +165,12 @@ public class SoyFoldingBuilder extends CustomFoldingBuilder {
   }
 
   @Override
-  protected String getLanguagePlaceholderText(@NotNull ASTNode node, @NotNull TextRange range) {
+  public String getPlaceholderText(@NotNull ASTNode node) {
+    return getPlaceholderText(node, node.getTextRange());
+  }
+
+  @Override
+  public String getPlaceholderText(@NotNull ASTNode node, @NotNull TextRange range) {
     PsiElement element = node.getPsi();
     if (element instanceof TagBlockElement) {
       TagBlockElement block = (TagBlockElement) element;
@@ -146,7 +189,7 @@ public class SoyFoldingBuilder extends CustomFoldingBuilder {
           + normalizePlaceHolderText(getClosingTagText(element));
     }
     if (element instanceof PsiComment) {
-      String placeholderText = buildCommentPlaceholderText(element);
+      String placeholderText = buildCommentPlaceholderText(element.getText());
       if (placeholderText != null) {
         return placeholderText;
       }
@@ -155,8 +198,8 @@ public class SoyFoldingBuilder extends CustomFoldingBuilder {
   }
 
   @Nullable
-  private String buildCommentPlaceholderText(PsiElement element) {
-    Matcher matcher = BLOCK_COMMENT_PATTERN.matcher(element.getText());
+  static String buildCommentPlaceholderText(String commentText) {
+    Matcher matcher = BLOCK_COMMENT_PATTERN.matcher(commentText);
     if (!matcher.find()) {
       return null;
     }
@@ -181,7 +224,7 @@ public class SoyFoldingBuilder extends CustomFoldingBuilder {
     return endTag == null ? "" : endTag.getText();
   }
 
-  private static String normalizePlaceHolderText(@Nullable String text) {
+  static String normalizePlaceHolderText(@Nullable String text) {
     if (text == null) {
       return null;
     }
@@ -193,12 +236,7 @@ public class SoyFoldingBuilder extends CustomFoldingBuilder {
   }
 
   @Override
-  protected boolean isRegionCollapsedByDefault(@NotNull ASTNode node) {
-    return false;
-  }
-
-  @Override
-  protected boolean isCustomFoldingCandidate(@NotNull ASTNode node) {
+  public boolean isCollapsedByDefault(@NotNull ASTNode node) {
     return false;
   }
 }
@@ -16,7 +16,7 @@ package com.google.bamboo.soy.insight.highlight;
 
 import static com.intellij.openapi.editor.colors.TextAttributesKey.createTextAttributesKey;
 
-import com.google.bamboo.soy.lexer.SoyLexer;
+import com.google.bamboo.soy.lexer.SoyHighlightingLexer;
 import com.google.bamboo.soy.lexer.SoyTokenTypes;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
@@ -66,7 +66,7 @@ public class SoySyntaxHighlighter extends SyntaxHighlighterBase {
   @NotNull
   @Override
   public Lexer getHighlightingLexer() {
-    return new SoyLexer();
+    return new SoyHighlightingLexer();
   }
 
   @NotNull
@@ -0,0 +1,197 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.insight.inspections;
+
+import com.google.bamboo.soy.elements.AtElementSingle;
+import com.google.bamboo.soy.file.LargeFileMode;
+import com.google.bamboo.soy.file.SoyFile;
+import com.google.bamboo.soy.file.SoyFileType;
+import com.google.bamboo.soy.insight.quickfix.RemoveUnusedParameterFix;
+import com.google.bamboo.soy.insight.quickfix.RemoveUnusedStateVarFix;
+import com.google.bamboo.soy.lang.Parameter;
+import com.google.bamboo.soy.lang.ParameterSpecification;
+import com.google.bamboo.soy.lang.SoyFileModel;
+import com.google.bamboo.soy.lang.SoyFileModel.CallSite;
+import com.google.bamboo.soy.lang.SoyFileModel.TemplateInfo;
+import com.google.bamboo.soy.lang.Variable;
+import com.intellij.analysis.AnalysisScope;
+import com.intellij.codeInspection.CommonProblemDescriptor;
+import com.intellij.codeInspection.GlobalInspectionContext;
+import com.intellij.codeInspection.GlobalInspectionTool;
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptionsProcessor;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.codeInspection.reference.RefElement;
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressIndicatorProvider;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Runs the call and parameter checks of the annotators over every Soy file in the scope.
+ *
+ * <p>Files are checked concurrently, each one in its own read action, so the inspection scales
+ * with the number of cores when run from the command line inspector.
+ */
+public class SoyValidationInspection extends GlobalInspectionTool {
+
+  @Override
+  public boolean isReadActionNeeded() {
+    // Every file is checked in its own read action, see runInspection().
+    return false;
+  }
+
+  @Override
+  public void runInspection(
+      @NotNull AnalysisScope scope,
+      @NotNull InspectionManager manager,
+      @NotNull GlobalInspectionContext globalContext,
+      @NotNull ProblemDescriptionsProcessor problemDescriptionsProcessor) {
+    List<VirtualFile> files = new ArrayList<>();
+    ReadAction.run(
+        () ->
+            scope.accept(
+                file -> {
+                  if (file.getFileType() == SoyFileType.INSTANCE) {
+                    files.add(file);
+                  }
+                  return true;
+                }));
+
+    JobLauncher.getInstance()
+        .invokeConcurrentlyUnderProgress(
+            files,
+            ProgressIndicatorProvider.getGlobalProgressIndicator(),
+            file -> {
+              ReadAction.run(
+                  () -> checkFile(file, manager, globalContext, problemDescriptionsProcessor));
+              return true;
+            });
+  }
+
+  private static void checkFile(
+      VirtualFile virtualFile,
+      InspectionManager manager,
+      GlobalInspectionContext globalContext,
+      ProblemDescriptionsProcessor problemDescriptionsProcessor) {
+    if (!virtualFile.isValid()) {
+      return;
+    }
+    PsiFile file = PsiManager.getInstance(manager.getProject()).findFile(virtualFile);
+    if (!(file instanceof SoyFile)) {
+      return;
+    }
+
+    List<ProblemDescriptor> problems = checkFile(file, manager);
+    if (problems.isEmpty()) {
+      return;
+    }
+    RefElement refFile = globalContext.getRefManager().getReference(file);
+    if (refFile == null) {
+      return;
+    }
+    synchronized (problemDescriptionsProcessor) {
+      problemDescriptionsProcessor.addProblemElement(
+          refFile, problems.toArray(CommonProblemDescriptor.EMPTY_ARRAY));
+    }
+  }
+
+  @NotNull
+  static List<ProblemDescriptor> checkFile(PsiFile file, InspectionManager manager) {
+    SoyFileModel model = SoyFileModel.getModel(file);
+    List<ProblemDescriptor> problems = new ArrayList<>();
+
+    // Resolving the calls of large files against the whole project is too expensive.
+    Collection<CallSite> callSites =
+        LargeFileMode.isLargeFile(file) ? Collections.emptyList() : model.getCallSites();
+    for (CallSite callSite : callSites) {
+      if (callSite.identifier == null || callSite.passesData) {
+        continue;
+      }
+      if (callSite.target == null) {
+        // Delegates may have no implementation in the project, e.g. with
+        // allowemptydefault="true" or when they are implemented in another delpackage.
+        if (!callSite.statement.isDelegate()) {
+          String description = "Unknown template " + callSite.identifier.getText();
+          problems.add(createProblem(manager, callSite.identifier, description));
+        }
+        continue;
+      }
+      List<String> missingParameterNames = callSite.getMissingParameterNames();
+      if (!missingParameterNames.isEmpty()) {
+        problems.add(
+            createProblem(
+                manager,
+                callSite.identifier,
+                "Missing required parameters: " + String.join(",", missingParameterNames)));
+      }
+      for (ParameterSpecification parameter : callSite.getUnknownParameters()) {
+        problems.add(
+            createProblem(manager, parameter.identifier(), "Unknown parameter specified"));
+      }
+      for (ParameterSpecification parameter : callSite.getDuplicateParameters()) {
+        problems.add(
+            createProblem(manager, parameter.identifier(), "Duplicate parameter specified"));
+      }
+    }
+
+    for (TemplateInfo template : model.getTemplates()) {
+      for (Variable variable : template.getUnusedVariables()) {
+        PsiElement definition = variable.getElement();
+        AtElementSingle atElement = PsiTreeUtil.getParentOfType(definition, AtElementSingle.class);
+        if (atElement == null) {
+          continue;
+        }
+        boolean isParameter = variable instanceof Parameter;
+        LocalQuickFix fix =
+            isParameter
+                ? new RemoveUnusedParameterFix(variable.name)
+                : new RemoveUnusedStateVarFix(variable.name);
+        problems.add(
+            manager.createProblemDescriptor(
+                atElement,
+                (isParameter ? "Parameter " : "State variable ") + variable.name + " is unused.",
+                false,
+                new LocalQuickFix[] {fix},
+                // Like the annotator, unused element variables are only weak warnings.
+                template.isElementBlock
+                    ? ProblemHighlightType.WEAK_WARNING
+                    : ProblemHighlightType.LIKE_UNUSED_SYMBOL));
+      }
+    }
+    return problems;
+  }
+
+  private static ProblemDescriptor createProblem(
+      InspectionManager manager, PsiElement element, String description) {
+    return manager.createProblemDescriptor(
+        element,
+        description,
+        false,
+        LocalQuickFix.EMPTY_ARRAY,
+        ProblemHighlightType.GENERIC_ERROR_OR_WARNING);
+  }
+}
@@ -0,0 +1,26 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.insight.navigation;
+
+import com.google.bamboo.soy.parser.SoyNamespaceDeclarationIdentifier;
+import com.google.bamboo.soy.stubs.index.NamespaceDeclarationIndex;
+
+/** Finds files by the namespaces they declare. */
+public class SoyGotoClassContributor
+    extends SoyIndexContributor<SoyNamespaceDeclarationIdentifier> {
+  public SoyGotoClassContributor() {
+    super(NamespaceDeclarationIndex.KEY, SoyNamespaceDeclarationIdentifier.class);
+  }
+}
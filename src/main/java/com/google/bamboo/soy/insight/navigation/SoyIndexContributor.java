@@ -0,0 +1,70 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.insight.navigation;
+
+import com.intellij.navigation.ChooseByNameContributorEx;
+import com.intellij.navigation.NavigationItem;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.stubs.StubIndex;
+import com.intellij.psi.stubs.StubIndexKey;
+import com.intellij.util.Processor;
+import com.intellij.util.indexing.FindSymbolParameters;
+import com.intellij.util.indexing.IdFilter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Offers the keys of a stub index as names and the indexed elements as items.
+ *
+ * <p>Names are only read from the index keys, and elements are created from stubs once a name is
+ * matched, so no file is parsed before a result is chosen.
+ */
+abstract class SoyIndexContributor<T extends PsiElement>
+    implements ChooseByNameContributorEx {
+  private final StubIndexKey<String, T> indexKey;
+  private final Class<T> elementClass;
+
+  SoyIndexContributor(StubIndexKey<String, T> indexKey, Class<T> elementClass) {
+    this.indexKey = indexKey;
+    this.elementClass = elementClass;
+  }
+
+  @Override
+  public void processNames(
+      @NotNull Processor<? super String> processor,
+      @NotNull GlobalSearchScope scope,
+      @Nullable IdFilter filter) {
+    StubIndex.getInstance().processAllKeys(indexKey, processor, scope, filter);
+  }
+
+  @Override
+  public void processElementsWithName(
+      @NotNull String name,
+      @NotNull Processor<? super NavigationItem> processor,
+      @NotNull FindSymbolParameters parameters) {
+    StubIndex.getInstance()
+        .processElements(
+            indexKey,
+            name,
+            parameters.getProject(),
+            parameters.getSearchScope(),
+            parameters.getIdFilter(),
+            elementClass,
+            (element) ->
+                !(element instanceof NavigationItem)
+                    || processor.process((NavigationItem) element));
+  }
+}
@@ -21,13 +21,26 @@ import com.intellij.ide.structureView.TextEditorBasedStructureViewModel
 import com.intellij.openapi.editor.Editor
 
 
+/**
+ * The structure of a Soy file. Templates are collapsed and show a plus without computing their
+ * children, so opening the view only reads the stub tree of the file. Until the file is parsed,
+ * templates only list their parameters and state, so that the File Structure popup, which
+ * computes the whole tree, does not parse it either.
+ */
 class SoyStructureViewModel(val file: SoyFile,
                             editor: Editor?) : TextEditorBasedStructureViewModel(editor,
     file),
-    StructureViewModel.ElementInfoProvider {
+    StructureViewModel.ElementInfoProvider,
+    StructureViewModel.ExpandInfoProvider {
   override fun getRoot(): StructureViewTreeElement = getTreeElement(file)
 
-  override fun isAlwaysShowsPlus(p0: StructureViewTreeElement?): Boolean = false
+  override fun isAlwaysShowsPlus(element: StructureViewTreeElement): Boolean =
+    hasLazyChildren(element)
 
-  override fun isAlwaysLeaf(p0: StructureViewTreeElement?): Boolean = false
+  override fun isAlwaysLeaf(element: StructureViewTreeElement): Boolean = isLeaf(element)
+
+  override fun isAutoExpand(element: StructureViewTreeElement): Boolean =
+    element.value is SoyFile
+
+  override fun isSmartExpand(): Boolean = false
 }
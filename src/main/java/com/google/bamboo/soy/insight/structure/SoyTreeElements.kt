@@ -18,6 +18,7 @@ import com.google.bamboo.soy.elements.AtElementSingle
 import com.google.bamboo.soy.elements.CallStatementElement
 import com.google.bamboo.soy.elements.ParamElement
 import com.google.bamboo.soy.elements.TagBlockElement
+import com.google.bamboo.soy.elements.impl.TemplateBlockMixin
 import com.google.bamboo.soy.file.SoyFile
 import com.google.bamboo.soy.icons.SoyIcons
 import com.google.bamboo.soy.parser.SoyAtInjectSingle
@@ -27,11 +28,19 @@ import com.google.bamboo.soy.parser.SoyLetCompoundStatement
 import com.google.bamboo.soy.parser.SoyLetSingleStatement
 import com.google.bamboo.soy.parser.SoyMsgStatement
 import com.google.bamboo.soy.parser.SoyNamespaceBlock
+import com.google.bamboo.soy.parser.SoyNamespaceDeclarationIdentifier
 import com.google.bamboo.soy.parser.SoyParamListElement
 import com.google.bamboo.soy.parser.SoyTemplateBlock
+import com.google.bamboo.soy.stubs.AtParamStub
+import com.google.bamboo.soy.stubs.AtStateStub
+import com.google.bamboo.soy.stubs.NamespaceDeclarationStub
+import com.google.bamboo.soy.stubs.TemplateBlockStub
+import com.intellij.extapi.psi.StubBasedPsiElementBase
 import com.intellij.ide.structureView.StructureViewTreeElement
 import com.intellij.ide.structureView.impl.common.PsiTreeElementBase
 import com.intellij.psi.PsiElement
+import com.intellij.psi.impl.source.PsiFileImpl
+import com.intellij.psi.stubs.StubElement
 import org.jetbrains.annotations.NotNull
 import javax.swing.Icon
 
@@ -46,6 +55,7 @@ fun getTreeElement(psiElement: PsiElement): PsiTreeElementBase<PsiElement> =
     is SoyLetSingleStatement -> LetSingleTreeElement(psiElement)
     is ParamElement -> ParamTreeElement(psiElement)
     is SoyTemplateBlock -> TemplateTreeElement(psiElement)
+    is SoyNamespaceBlock, is SoyNamespaceDeclarationIdentifier -> NamespaceTreeElement(psiElement)
     is SoyFile -> FileTreeElement(psiElement)
     is SoyMsgStatement -> MsgTreeElement(psiElement)
     is AtElementSingle -> AtTreeElement(psiElement)
@@ -53,6 +63,24 @@ fun getTreeElement(psiElement: PsiElement): PsiTreeElementBase<PsiElement> =
   }
 
 
+/**
+ * Whether the children of the element are only computed once its node is opened, so the tree
+ * should not ask for them up front.
+ */
+fun hasLazyChildren(element: StructureViewTreeElement): Boolean = element is TemplateTreeElement
+
+/**
+ * Whether the element never has children.
+ */
+fun isLeaf(element: StructureViewTreeElement): Boolean =
+  element is AtTreeElement || element is NamespaceTreeElement
+
+/**
+ * Returns the stub of an element if it has one, without loading the stub tree or the AST.
+ */
+private fun getGreenStub(psiElement: PsiElement): StubElement<*>? =
+  (psiElement as? StubBasedPsiElementBase<*>)?.greenStub
+
 /**
  * Returns a presentable name for a [PsiElement] or null if the element should not be seen in the
  * structure view.
@@ -117,9 +145,32 @@ private class CallTreeElement(val psiElement: CallStatementElement) : BaseTreeEl
 
 /**
  * A TreeElement for the [SoyFile].
+ *
+ * The namespace and the templates are read from the stub tree when the file has one, so that
+ * the structure of a file can be shown without parsing it.
  */
 private class FileTreeElement(val psiFile: SoyFile) : BaseTreeElement(psiFile) {
   override fun getPresentableText(): String = psiFile.name
+
+  override fun getChildrenBase(): Collection<StructureViewTreeElement> {
+    val stub = psiFile.greenStub ?: psiFile.stub ?: return getChildren(psiFile)
+    return stub.childrenStubs.mapNotNull { child ->
+      when (child) {
+        is NamespaceDeclarationStub -> NamespaceTreeElement(child.psi)
+        is TemplateBlockStub -> TemplateTreeElement(child.psi)
+        else -> null
+      }
+    }
+  }
+}
+
+/**
+ * A TreeElement for the namespace of the file, either its block or its stub-backed identifier.
+ */
+private class NamespaceTreeElement(psiElement: PsiElement) : BaseTreeElement(psiElement) {
+  override fun getChildrenBase(): Collection<StructureViewTreeElement> = emptyList()
+
+  override fun getPresentableText(): String = "namespace"
 }
 
 /**
@@ -165,8 +216,10 @@ private class ParamTreeElement(val psiElement: ParamElement) : BaseTreeElement(p
  * A TreeElement for [SoyAtInjectSingle], [SoyAtParamSingle] and [SoyAtStateSingle].
  */
 private class AtTreeElement(val psiElement: AtElementSingle) : BaseTreeElement(psiElement) {
+  override fun getChildrenBase(): Collection<StructureViewTreeElement> = emptyList()
+
   override fun getPresentableText(): String? =
-    if (psiElement.paramDefinitionIdentifier != null)
+    if (psiElement.name?.isNotEmpty() == true)
       shortenTextIfLong(atElementSinglePresentableText(psiElement))
     else null
 
@@ -182,12 +235,14 @@ private class AtTreeElement(val psiElement: AtElementSingle) : BaseTreeElement(p
   private fun buildTypeAndDefaultValue(psiElement: AtElementSingle): String {
     var type = ""
     var defaultValue = ""
+    // Stubs don't keep the default values, they are only shown once the file is parsed.
+    val isStubBacked = (psiElement as? StubBasedPsiElementBase<*>)?.stub != null
     if (psiElement is SoyAtParamSingle) {
       type = psiElement.type
-      defaultValue = psiElement.defaultInitializerExpr?.text ?: ""
+      defaultValue = if (isStubBacked) "" else psiElement.defaultInitializerExpr?.text ?: ""
     } else if (psiElement is SoyAtStateSingle) {
       type = psiElement.type
-      defaultValue = psiElement.defaultInitializerExpr?.text ?: ""
+      defaultValue = if (isStubBacked) "" else psiElement.defaultInitializerExpr?.text ?: ""
     } else if (type.isEmpty()) {
       return if (defaultValue.isEmpty()) "" else " := $defaultValue"
     }
@@ -197,8 +252,33 @@ private class AtTreeElement(val psiElement: AtElementSingle) : BaseTreeElement(p
 
 /**
  * A TreeElement for the template blocks.
+ *
+ * The name, parameters and state are read from the stub when the template has one. The statements
+ * are only shown once the file is parsed anyway: the File Structure popup asks for the children of
+ * every node up front, which must not parse the file.
  */
 private class TemplateTreeElement(val psiElement: SoyTemplateBlock) : BaseTreeElement(psiElement) {
-  override fun getPresentableText(): String =
-    "${getPresentableName(psiElement)} ${psiElement.name}"
+  override fun getPresentableText(): String {
+    val tagName = when {
+      psiElement.isDelegate -> "deltemplate"
+      (psiElement as TemplateBlockMixin).isElementBlock -> "element"
+      else -> "template"
+    }
+    return "$tagName ${psiElement.name}"
+  }
+
+  override fun getChildrenBase(): Collection<StructureViewTreeElement> {
+    if ((psiElement.containingFile as? PsiFileImpl)?.isContentsLoaded == false) {
+      val declarations = getGreenStub(psiElement)?.childrenStubs
+        ?.filter { it is AtParamStub || it is AtStateStub }
+      if (declarations != null) {
+        return declarations.map { getTreeElement(it.psi) }
+      }
+    }
+    val declarations =
+      psiElement.children.filter { it is SoyAtParamSingle || it is SoyAtStateSingle }
+    val statements = getChildren(psiElement)
+      .filter { it.value !is SoyAtParamSingle && it.value !is SoyAtStateSingle }
+    return declarations.map { getTreeElement(it) } + statements
+  }
 }
@@ -0,0 +1,91 @@
+// Copyright 2017 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.lang;
+
+import com.google.bamboo.soy.parser.SoyAliasBlock;
+import com.google.bamboo.soy.parser.SoyBlockList;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A class that manages mapping of namespaces with respect to aliases.
+ *
+ * <p>Instances are immutable, use {@link com.google.bamboo.soy.file.SoyFile#getAliasMapper()} to
+ * get the cached mapper of a file.
+ */
+public class AliasMapper {
+  private final Map<String, String> namespaceToAlias;
+  private final Map<String, String> aliasToNamespace = new HashMap<>();
+
+  public AliasMapper(PsiFile file) {
+    this(getNamespaceAliases(file));
+  }
+
+  public AliasMapper(Map<String, String> namespaceToAlias) {
+    this.namespaceToAlias = namespaceToAlias;
+    namespaceToAlias.forEach((namespace, alias) -> aliasToNamespace.put(alias, namespace));
+  }
+
+  /**
+   * Collects the aliases declared in the file, mapping namespaces to their aliases. Both keys and
+   * values end with a dot.
+   */
+  public static Map<String, String> getNamespaceAliases(PsiFile file) {
+    // Aliases may only be declared at the top level of the file.
+    SoyBlockList blockList = PsiTreeUtil.getChildOfType(file, SoyBlockList.class);
+    Map<String, String> aliases = new HashMap<>();
+    PsiTreeUtil.getChildrenOfTypeAsList(blockList, SoyAliasBlock.class)
+        .forEach(
+            alias -> {
+              if (alias.getNamespaceIdentifier() != null) {
+                String namespaceIdentifier = alias.getNamespaceIdentifier().getText();
+                String aliasIdentifier;
+                if (alias.getAliasIdentifier() != null) {
+                  aliasIdentifier = alias.getAliasIdentifier().getText();
+                } else {
+                  String[] namespaceFragments = namespaceIdentifier.split("\\.");
+                  aliasIdentifier = namespaceFragments[namespaceFragments.length - 1];
+                }
+
+                // Adding dots to prevent in-token matching.
+                aliases.put(namespaceIdentifier + ".", aliasIdentifier + ".");
+              }
+            });
+    return aliases;
+  }
+
+  public Map<String, String> getNamespaceToAlias() {
+    return namespaceToAlias;
+  }
+
+  public String normalizeIdentifier(String identifier) {
+    if (identifier.startsWith(".") || aliasToNamespace.isEmpty()) {
+      return identifier;
+    }
+
+    // Aliases always end with a dot, so only the prefixes up to each dot need to be looked up,
+    // shortest first.
+    for (int end = identifier.indexOf('.'); end >= 0; end = identifier.indexOf('.', end + 1)) {
+      String namespace = aliasToNamespace.get(identifier.substring(0, end + 1));
+      if (namespace != null) {
+        return namespace + identifier.substring(end + 1);
+      }
+    }
+
+    return identifier;
+  }
+}
@@ -0,0 +1,146 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.lang;
+
+import com.google.bamboo.soy.lang.TemplateNameUtils.Fragment;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.UserDataHolderEx;
+import com.intellij.util.Processor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The candidates for template call completion, with aliases already applied, shared across
+ * completions in the project.
+ *
+ * <p>Entries are kept for the identifier up to its last dot, so every following keystroke in the
+ * last fragment only narrows a cached list. The stub index modification stamp is part of the
+ * key, which keeps the lists valid across edits that leave the indexed names untouched, e.g.
+ * typing the call itself.
+ */
+class NextFragmentCache {
+  private static final Key<NextFragmentCache> NEXT_FRAGMENT_CACHE =
+      Key.create("SoyNextFragmentCache");
+  private static final int MAX_ENTRIES = 32;
+
+  private final Map<CacheKey, List<Fragment>> entries =
+      Collections.synchronizedMap(
+          new LinkedHashMap<CacheKey, List<Fragment>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, List<Fragment>> eldest) {
+              return size() > MAX_ENTRIES;
+            }
+          });
+
+  static NextFragmentCache getInstance(Project project) {
+    return ((UserDataHolderEx) project)
+        .putUserDataIfAbsent(NEXT_FRAGMENT_CACHE, new NextFragmentCache());
+  }
+
+  /** Walks the fragments following a parent prefix, until the processor returns false. */
+  interface Walker {
+    boolean walk(Processor<Fragment> processor);
+  }
+
+  /**
+   * Feeds the fragments following the parent prefix that start with the identifier to the
+   * processor, until it returns false.
+   *
+   * <p>A cached list is narrowed if the stamp, aliases, delegate mode and local templates match.
+   * Otherwise the walker streams the fragments, and the list is only cached if the processor did
+   * not stop the walk early.
+   *
+   * @return false if the processor stopped
+   */
+  boolean processFragments(
+      long stamp,
+      Map<String, String> namespaceToAlias,
+      boolean isDelegate,
+      Set<String> localTemplateNames,
+      String parentPrefix,
+      String identifier,
+      Walker walker,
+      Processor<? super Fragment> processor) {
+    CacheKey key =
+        new CacheKey(stamp, namespaceToAlias, isDelegate, localTemplateNames, parentPrefix);
+    List<Fragment> cachedFragments = entries.get(key);
+    if (cachedFragments != null) {
+      for (Fragment fragment : cachedFragments) {
+        if (fragment.text.startsWith(identifier) && !processor.process(fragment)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    // Walked outside of the lock, concurrent misses just walk the same fragments twice.
+    List<Fragment> fragments = new ArrayList<>();
+    boolean completed =
+        walker.walk(
+            (fragment) -> {
+              fragments.add(fragment);
+              return !fragment.text.startsWith(identifier) || processor.process(fragment);
+            });
+    if (completed) {
+      entries.put(key, Collections.unmodifiableList(fragments));
+    }
+    return completed;
+  }
+
+  private static class CacheKey {
+    private final long stamp;
+    private final Map<String, String> namespaceToAlias;
+    private final boolean isDelegate;
+    private final Set<String> localTemplateNames;
+    private final String parentPrefix;
+
+    private CacheKey(
+        long stamp,
+        Map<String, String> namespaceToAlias,
+        boolean isDelegate,
+        Set<String> localTemplateNames,
+        String parentPrefix) {
+      this.stamp = stamp;
+      this.namespaceToAlias = namespaceToAlias;
+      this.isDelegate = isDelegate;
+      this.localTemplateNames = localTemplateNames;
+      this.parentPrefix = parentPrefix;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey key = (CacheKey) other;
+      return stamp == key.stamp
+          && isDelegate == key.isDelegate
+          && parentPrefix.equals(key.parentPrefix)
+          && namespaceToAlias.equals(key.namespaceToAlias)
+          && localTemplateNames.equals(key.localTemplateNames);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(stamp, namespaceToAlias, isDelegate, localTemplateNames, parentPrefix);
+    }
+  }
+}
@@ -1,14 +1,33 @@
 package com.google.bamboo.soy.lang;
 
 import com.google.bamboo.soy.parser.SoyParamDefinitionIdentifier;
+import com.intellij.psi.PsiNamedElement;
+import java.util.function.Supplier;
 import org.jetbrains.annotations.NotNull;
 
 public class Parameter extends Variable {
   public final boolean isOptional;
+  public final boolean hasDefault;
 
   public Parameter(
-      String name, String type, boolean isOptional, @NotNull SoyParamDefinitionIdentifier element) {
+      String name,
+      String type,
+      boolean isOptional,
+      boolean hasDefault,
+      @NotNull SoyParamDefinitionIdentifier element) {
     super(name, type, element);
     this.isOptional = isOptional;
+    this.hasDefault = hasDefault;
+  }
+
+  public Parameter(
+      String name,
+      String type,
+      boolean isOptional,
+      boolean hasDefault,
+      @NotNull Supplier<? extends PsiNamedElement> elementSupplier) {
+    super(name, type, elementSupplier);
+    this.isOptional = isOptional;
+    this.hasDefault = hasDefault;
   }
 }
@@ -0,0 +1,101 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.lang;
+
+import com.google.bamboo.soy.lang.TemplateNameUtils.Fragment;
+import com.intellij.util.CommonProcessors;
+import com.intellij.util.Processor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * A prefix trie of dotted names, such as namespaces and fully qualified template names.
+ *
+ * <p>Every node corresponds to a single dot-separated fragment, so looking up the fragments that
+ * follow a typed prefix only touches the subtree below that prefix.
+ */
+public class QualifiedNameTrie {
+  private final Node root = new Node();
+
+  public void add(String name) {
+    Node node = root;
+    for (String fragment : name.split("\\.", -1)) {
+      node = node.children.computeIfAbsent(fragment, (key) -> new Node());
+    }
+    node.name = name;
+  }
+
+  /**
+   * Returns the fragments that may follow the given prefix, considering only the names accepted by
+   * the filter. The prefix may end in the middle of a fragment.
+   */
+  public List<Fragment> getNextFragments(String prefix, Predicate<String> nameFilter) {
+    List<Fragment> fragments = new ArrayList<>();
+    processNextFragments(prefix, nameFilter, new CommonProcessors.CollectProcessor<>(fragments));
+    return fragments;
+  }
+
+  /**
+   * Feeds the fragments that may follow the given prefix to the processor in alphabetical order,
+   * until the processor returns false.
+   *
+   * @return false if the processor stopped the traversal
+   */
+  public boolean processNextFragments(
+      String prefix, Predicate<String> nameFilter, Processor<? super Fragment> processor) {
+    String[] prefixFragments = prefix.split("\\.", -1);
+    Node node = root;
+    for (int i = 0; i < prefixFragments.length - 1; i++) {
+      node = node.children.get(prefixFragments[i]);
+      if (node == null) {
+        return true;
+      }
+    }
+
+    String partialFragment = prefixFragments[prefixFragments.length - 1];
+    String parentText = prefix.substring(0, prefix.length() - partialFragment.length());
+    SortedMap<String, Node> candidates =
+        node.children.subMap(partialFragment, partialFragment + Character.MAX_VALUE);
+
+    for (Map.Entry<String, Node> entry : candidates.entrySet()) {
+      String text = parentText + entry.getKey();
+      Node candidate = entry.getValue();
+      if (candidate.name != null
+          && nameFilter.test(candidate.name)
+          && !processor.process(new Fragment(text, true))) {
+        return false;
+      }
+      if (candidate.children.values().stream().anyMatch((child) -> child.matches(nameFilter))
+          && !processor.process(new Fragment(text, false))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static class Node {
+    private final TreeMap<String, Node> children = new TreeMap<>();
+    private String name;
+
+    private boolean matches(Predicate<String> nameFilter) {
+      return (name != null && nameFilter.test(name))
+          || children.values().stream().anyMatch((child) -> child.matches(nameFilter));
+    }
+  }
+}
@@ -0,0 +1,234 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.lang;
+
+import com.google.bamboo.soy.elements.CallStatementElement;
+import com.google.bamboo.soy.elements.impl.TemplateBlockMixin;
+import com.google.bamboo.soy.parser.SoyTemplateBlock;
+import com.google.bamboo.soy.parser.SoyTemplateReferenceIdentifier;
+import com.google.common.collect.Iterables;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The templates and call sites of a Soy file, collected in a single pass over its PSI.
+ *
+ * <p>Annotators run for every element of the file, so they read the declarations of the enclosing
+ * template and the resolved target of a call from here instead of walking parents and querying the
+ * index over and over. Every distinct callee is resolved once per file. Call targets live in other
+ * files, so the model is dropped on any PSI change.
+ */
+public class SoyFileModel {
+  private final Map<SoyTemplateBlock, TemplateInfo> templates = new LinkedHashMap<>();
+  private final Map<CallStatementElement, CallSite> callSites = new HashMap<>();
+  // Keyed by the fully qualified callee name, so that repeated calls are resolved only once.
+  private final Map<String, Optional<CallTarget>> callTargets = new HashMap<>();
+
+  private SoyFileModel(PsiFile file) {
+    file.accept(
+        new PsiRecursiveElementWalkingVisitor() {
+          @Override
+          public void visitElement(@NotNull PsiElement element) {
+            if (element instanceof SoyTemplateBlock) {
+              SoyTemplateBlock block = (SoyTemplateBlock) element;
+              templates.put(block, new TemplateInfo(block));
+            } else if (element instanceof CallStatementElement) {
+              CallStatementElement statement = (CallStatementElement) element;
+              callSites.put(statement, new CallSite(statement, SoyFileModel.this));
+            }
+            super.visitElement(element);
+          }
+        });
+  }
+
+  @NotNull
+  public static SoyFileModel getModel(@NotNull PsiFile file) {
+    return CachedValuesManager.getCachedValue(
+        file,
+        () ->
+            CachedValueProvider.Result.create(
+                new SoyFileModel(file), PsiModificationTracker.MODIFICATION_COUNT));
+  }
+
+  /** The template enclosing the element in its file, if any. */
+  @Nullable
+  public static TemplateInfo getEnclosingTemplate(@NotNull PsiElement element) {
+    SoyTemplateBlock block = PsiTreeUtil.getParentOfType(element, SoyTemplateBlock.class, false);
+    return block == null ? null : getModel(element.getContainingFile()).templates.get(block);
+  }
+
+  @Nullable
+  public static CallSite getCallSite(@NotNull CallStatementElement statement) {
+    return getModel(statement.getContainingFile()).callSites.get(statement);
+  }
+
+  @Nullable
+  private CallTarget getCallTarget(PsiElement element, String identifier) {
+    String fullyQualifiedName = TemplateNameUtils.normalizeTemplateName(element, identifier);
+    return callTargets
+        .computeIfAbsent(
+            fullyQualifiedName,
+            (name) ->
+                TemplateNameUtils.findTemplateDeclarationsByFullyQualifiedName(
+                        element.getProject(), name)
+                    .stream()
+                    .findFirst()
+                    .map(CallTarget::new))
+        .orElse(null);
+  }
+
+  @NotNull
+  public Collection<TemplateInfo> getTemplates() {
+    return Collections.unmodifiableCollection(templates.values());
+  }
+
+  @NotNull
+  public Collection<CallSite> getCallSites() {
+    return Collections.unmodifiableCollection(callSites.values());
+  }
+
+  /** The declarations of a template in the file. */
+  public static class TemplateInfo {
+    public final SoyTemplateBlock block;
+    public final boolean isElementBlock;
+    public final List<Parameter> parameters;
+    public final List<StateVariable> stateVariables;
+    public final List<Variable> injectedVariables;
+
+    private TemplateInfo(SoyTemplateBlock block) {
+      this.block = block;
+      this.isElementBlock = ((TemplateBlockMixin) block).isElementBlock();
+      this.parameters = block.getParameters();
+      this.stateVariables = block.getStates();
+      this.injectedVariables = block.getInjectedVariables();
+    }
+
+    /**
+     * The parameters and state variables not referenced in the template, unless it passes its
+     * values along with data="...".
+     */
+    public List<Variable> getUnusedVariables() {
+      TemplateVariableUsages usages = TemplateVariableUsages.getUsages(block);
+      if (usages.passesData()) {
+        return Collections.emptyList();
+      }
+      List<Variable> unusedVariables = new ArrayList<>();
+      for (Variable variable : Iterables.concat(parameters, stateVariables)) {
+        if (!usages.isUsed(variable.name)) {
+          unusedVariables.add(variable);
+        }
+      }
+      return unusedVariables;
+    }
+  }
+
+  /** A template called from the file, with its parameter names prepared for lookups. */
+  public static class CallTarget {
+    public final SoyTemplateBlock block;
+    public final Set<String> declaredParameterNames = new HashSet<>();
+    // In declaration order, for reporting the missing ones.
+    public final Set<String> requiredParameterNames = new LinkedHashSet<>();
+
+    private CallTarget(SoyTemplateBlock block) {
+      this.block = block;
+      for (Parameter parameter : block.getParameters()) {
+        declaredParameterNames.add(parameter.name);
+        if (!parameter.isOptional) {
+          requiredParameterNames.add(parameter.name);
+        }
+      }
+    }
+  }
+
+  /** A {call} or {delcall} statement in the file and the template it resolves to. */
+  public static class CallSite {
+    public final CallStatementElement statement;
+    @Nullable public final SoyTemplateReferenceIdentifier identifier;
+    public final boolean passesData;
+    public final Collection<ParameterSpecification> givenParameters;
+    // The first matching declaration, null for unknown templates.
+    @Nullable public final CallTarget target;
+
+    private CallSite(CallStatementElement statement, SoyFileModel model) {
+      this.statement = statement;
+      this.identifier =
+          PsiTreeUtil.findChildOfType(statement, SoyTemplateReferenceIdentifier.class);
+      this.passesData =
+          statement.getBeginCall().getAttributeKeyValuePairList().stream()
+              .map(pair -> pair.getAttributeNameIdentifier().getText())
+              .anyMatch("data"::equals);
+      this.givenParameters = ParamUtils.getGivenParameters(statement);
+      this.target =
+          identifier == null ? null : model.getCallTarget(statement, identifier.getText());
+    }
+
+    /** Whether the given parameters should be checked against the target template. */
+    public boolean isCheckable() {
+      return identifier != null && target != null && !passesData;
+    }
+
+    /** The required parameters of the target that are not given, in declaration order. */
+    public List<String> getMissingParameterNames() {
+      if (!isCheckable()) {
+        return Collections.emptyList();
+      }
+      Set<String> givenParameterNames =
+          givenParameters.stream().map(ParameterSpecification::name).collect(Collectors.toSet());
+      return target.requiredParameterNames.stream()
+          .filter(name -> !givenParameterNames.contains(name))
+          .collect(Collectors.toList());
+    }
+
+    /** The given parameters that the target does not declare. */
+    public List<ParameterSpecification> getUnknownParameters() {
+      if (!isCheckable()) {
+        return Collections.emptyList();
+      }
+      return givenParameters.stream()
+          .filter(parameter -> !target.declaredParameterNames.contains(parameter.name()))
+          .collect(Collectors.toList());
+    }
+
+    /** The given parameters whose name was already given before. */
+    public List<ParameterSpecification> getDuplicateParameters() {
+      if (!isCheckable()) {
+        return Collections.emptyList();
+      }
+      Set<String> seenNames = new HashSet<>();
+      return givenParameters.stream()
+          .filter(parameter -> !seenNames.add(parameter.name()))
+          .collect(Collectors.toList());
+    }
+  }
+}
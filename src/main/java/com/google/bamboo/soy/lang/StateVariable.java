@@ -15,6 +15,8 @@
 package com.google.bamboo.soy.lang;
 
 import com.google.bamboo.soy.parser.SoyParamDefinitionIdentifier;
+import com.intellij.psi.PsiNamedElement;
+import java.util.function.Supplier;
 import org.jetbrains.annotations.NotNull;
 
 public class StateVariable extends Variable {
@@ -22,4 +24,9 @@ public class StateVariable extends Variable {
       String name, String type, @NotNull SoyParamDefinitionIdentifier element) {
     super(name, type, element);
   }
+
+  public StateVariable(
+      String name, String type, @NotNull Supplier<? extends PsiNamedElement> elementSupplier) {
+    super(name, type, elementSupplier);
+  }
 }
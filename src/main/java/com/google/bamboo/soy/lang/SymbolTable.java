@@ -0,0 +1,89 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.lang;
+
+import com.google.bamboo.soy.parser.SoyTemplateBlock;
+import com.google.common.annotations.VisibleForTesting;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Name-keyed variable lookup for all the scopes of a template.
+ *
+ * <p>The table of a template is cached until its file changes. The variables and the parent of
+ * every scope are computed once, so a lookup takes one hash probe per enclosing scope.
+ */
+public class SymbolTable {
+  private final Map<Scope, ScopeEntry> entries = new ConcurrentHashMap<>();
+
+  /**
+   * Finds the variables with the given name visible at the element, from the innermost scope to
+   * the outermost one.
+   */
+  @NotNull
+  public static List<Variable> findVariables(PsiElement element, String name) {
+    Scope scope = Scope.getScope(element);
+    if (scope == null) {
+      return Collections.emptyList();
+    }
+    SoyTemplateBlock template = PsiTreeUtil.getParentOfType(element, SoyTemplateBlock.class);
+    if (template == null) {
+      return scope
+          .getVariables()
+          .stream()
+          .filter(variable -> variable.name.equals(name))
+          .collect(Collectors.toList());
+    }
+    return getSymbolTable(template).findVariables(scope, name);
+  }
+
+  @VisibleForTesting
+  static SymbolTable getSymbolTable(SoyTemplateBlock template) {
+    return CachedValuesManager.getCachedValue(
+        template, () -> CachedValueProvider.Result.create(new SymbolTable(), template));
+  }
+
+  private List<Variable> findVariables(Scope scope, String name) {
+    List<Variable> variables = new ArrayList<>();
+    for (Scope current = scope; current != null; ) {
+      ScopeEntry entry = entries.computeIfAbsent(current, ScopeEntry::new);
+      variables.addAll(entry.variablesByName.getOrDefault(name, Collections.emptyList()));
+      current = entry.parent;
+    }
+    return variables;
+  }
+
+  private static class ScopeEntry {
+    private final Map<String, List<Variable>> variablesByName = new HashMap<>();
+    private final Scope parent;
+
+    ScopeEntry(Scope scope) {
+      for (Variable variable : scope.getLocalVariables()) {
+        variablesByName.computeIfAbsent(variable.name, key -> new ArrayList<>(1)).add(variable);
+      }
+      parent = scope.getParentScope();
+    }
+  }
+}
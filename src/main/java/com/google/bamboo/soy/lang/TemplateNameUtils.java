@@ -15,25 +15,37 @@
 package com.google.bamboo.soy.lang;
 
 import com.google.bamboo.soy.file.SoyFile;
-import com.google.bamboo.soy.parser.SoyAliasBlock;
 import com.google.bamboo.soy.parser.SoyTemplateBlock;
+import com.google.bamboo.soy.parser.SoyTemplateReferenceIdentifier;
+import com.google.bamboo.soy.stubs.index.DelTemplateIndex;
 import com.google.bamboo.soy.stubs.index.NamespaceDeclarationIndex;
+import com.google.bamboo.soy.stubs.index.PublicTemplateIndex;
 import com.google.bamboo.soy.stubs.index.TemplateBlockIndex;
-import com.google.common.collect.HashBiMap;
+import com.google.bamboo.soy.stubs.index.TemplateReferenceIndex;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.search.GlobalSearchScope;
-import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.stubs.StubIndex;
+import com.intellij.psi.stubs.StubIndexKey;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.util.CommonProcessors;
+import com.intellij.util.Processor;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * A helper class for efficient template and namespace lookups.
@@ -41,6 +53,13 @@ import java.util.stream.Stream;
  * <p>Performed operations are based on the stub trees.
  */
 public class TemplateNameUtils {
+  private static final Key<CachedValue<QualifiedNameTrie>> NAMESPACE_NAME_TRIE =
+      Key.create("SoyNamespaceNameTrie");
+  private static final Key<CachedValue<QualifiedNameTrie>> PUBLIC_TEMPLATE_NAME_TRIE =
+      Key.create("SoyPublicTemplateNameTrie");
+  private static final Key<CachedValue<QualifiedNameTrie>> DEL_TEMPLATE_NAME_TRIE =
+      Key.create("SoyDelTemplateNameTrie");
+
   /** Finds the only SoyTemplateBlock by its exact name. */
   public static SoyTemplateBlock findTemplateDeclaration(
       PsiElement element, String templateIdentifier) {
@@ -51,46 +70,53 @@ public class TemplateNameUtils {
   /** Finds the matching SoyTemplateBlock by their exact name. */
   public static List<SoyTemplateBlock> findTemplateDeclarations(
       PsiElement element, String identifier) {
-    if (identifier.startsWith(".")) {
-      identifier = ((SoyFile) element.getContainingFile()).getNamespace() + identifier;
-    } else {
-      AliasMapper mapper = new AliasMapper(element.getContainingFile());
-      identifier = mapper.normalizeIdentifier(identifier);
-    }
+    return findTemplateDeclarationsByFullyQualifiedName(
+        element.getProject(), normalizeTemplateName(element, identifier));
+  }
 
-    Project project = element.getProject();
+  /** Finds the matching SoyTemplateBlock by their fully qualified name. */
+  public static List<SoyTemplateBlock> findTemplateDeclarationsByFullyQualifiedName(
+      Project project, String fullyQualifiedName) {
     return TemplateBlockIndex.INSTANCE
-        .get(identifier, project, GlobalSearchScope.allScope(project))
+        .get(fullyQualifiedName, project, GlobalSearchScope.allScope(project))
         .stream()
         .filter((block) -> block.getDefinitionIdentifier() != null)
         .collect(Collectors.toList());
   }
 
+  /** Resolves a relative or aliased template name used in the file of the element. */
+  public static String normalizeTemplateName(PsiElement element, String identifier) {
+    if (identifier.startsWith(".")) {
+      return ((SoyFile) element.getContainingFile()).getNamespace() + identifier;
+    }
+    PsiFile file = element.getContainingFile();
+    return file instanceof SoyFile
+        ? ((SoyFile) file).getAliasMapper().normalizeIdentifier(identifier)
+        : identifier;
+  }
+
+  /** Finds the template names in {call} and {delcall} tags referring to the given template. */
+  public static Collection<SoyTemplateReferenceIdentifier> findTemplateReferences(
+      Project project, String fullyQualifiedName, GlobalSearchScope scope) {
+    return StubIndex.getElements(
+        TemplateReferenceIndex.KEY,
+        fullyQualifiedName,
+        project,
+        scope,
+        SoyTemplateReferenceIdentifier.class);
+  }
+
   /** Finds all local template names in the given file. */
   public static List<String> findLocalTemplateNames(PsiElement element) {
     PsiFile file = element.getContainingFile();
-    return TemplateBlockIndex.INSTANCE
-        .getAllKeys(file.getProject())
-        .stream()
-        .flatMap(
-            (key) ->
-                TemplateBlockIndex.INSTANCE
-                    .get(
-                        key, file.getProject(), GlobalSearchScope.fileScope(file.getOriginalFile()))
-                    .stream()
-                    .filter((block) -> !block.isDelegate())
-                    .map(SoyTemplateBlock::getName))
-        .collect(Collectors.toList());
+    return file instanceof SoyFile
+        ? ((SoyFile) file).getLocalTemplateNames()
+        : new ArrayList<>();
   }
 
   /** Finds all namespace names starting with the given prefix */
   public static List<Fragment> getTemplateNamespaceFragments(Project project, String prefix) {
-    return NamespaceDeclarationIndex.INSTANCE
-        .getAllKeys(project)
-        .stream()
-        .filter((key) -> key.startsWith(prefix))
-        .map((name) -> getNextFragment(name, prefix))
-        .collect(Collectors.toList());
+    return getNamespaceNameTrie(project).getNextFragments(prefix, (name) -> true);
   }
 
   /**
@@ -99,46 +125,169 @@ public class TemplateNameUtils {
    */
   public static Collection<Fragment> getPossibleNextIdentifierFragments(
       Project project, PsiElement identifierElement, String identifier, boolean isDelegate) {
-    AliasMapper mapper = new AliasMapper(identifierElement.getContainingFile());
-    GlobalSearchScope scope =
-        isDelegate
-            ? GlobalSearchScope.allScope(project)
-            : GlobalSearchScope.allScope(project)
-                .intersectWith(
-                    GlobalSearchScope.notScope(
-                        GlobalSearchScope.fileScope(
-                            identifierElement.getContainingFile().getOriginalFile())));
+    Set<Fragment> fragments = new LinkedHashSet<>();
+    processPossibleNextIdentifierFragments(
+        project,
+        identifierElement,
+        identifier,
+        isDelegate,
+        new CommonProcessors.CollectProcessor<>(fragments));
+    return fragments;
+  }
 
-    return TemplateBlockIndex.INSTANCE
-        .getAllKeys(project)
-        .stream()
+  /**
+   * Feeds the fragments of {@link #getPossibleNextIdentifierFragments} to the processor, fully
+   * qualified names in alphabetical order first, each fragment once. Stops as soon as the
+   * processor returns false.
+   *
+   * <p>The fragments following the identifier up to its last dot are cached per project once they
+   * were walked completely, so that typing the last fragment only narrows the cached list.
+   */
+  public static void processPossibleNextIdentifierFragments(
+      Project project,
+      PsiElement identifierElement,
+      String identifier,
+      boolean isDelegate,
+      Processor<? super Fragment> processor) {
+    PsiFile file = identifierElement.getContainingFile();
+    Map<String, String> namespaceToAlias =
+        file instanceof SoyFile
+            ? ((SoyFile) file).getAliasMapper().getNamespaceToAlias()
+            : Collections.emptyMap();
 
-        // Filter out private templates, assuming those end with "_".
-        .filter((key) -> !key.endsWith("_"))
+    // Local templates are completed by their partial names, so only templates defined elsewhere
+    // are offered here.
+    Set<String> localTemplateNames =
+        isDelegate || !(file instanceof SoyFile)
+            ? Collections.emptySet()
+            : ((SoyFile) file)
+                .getLocalTemplateNames()
+                .stream()
+                .map((name) -> ((SoyFile) file).getNamespace() + name)
+                .collect(Collectors.toSet());
+    Predicate<String> nameFilter = (key) -> !localTemplateNames.contains(key);
 
-        // Filter out deltemplates or normal templates based on `isDelegate`.
-        // Also checks template's lang.
-        .filter(
-            (key) ->
-                TemplateBlockIndex.INSTANCE
-                    .get(key, project, scope)
-                    .stream()
-                    .anyMatch((block) -> block.isDelegate() == isDelegate))
+    // Read before the trie, so that a concurrent index change can't leave a stale list under a new
+    // stamp.
+    long stamp = getStubIndexModificationTracker(project).getModificationCount();
+    // The tries only contain deltemplates or templates visible from other files respectively, so
+    // neither visibility nor template kind needs to be checked on the stubs.
+    QualifiedNameTrie trie =
+        isDelegate ? getDelTemplateNameTrie(project) : getPublicTemplateNameTrie(project);
+    String parentPrefix = identifier.substring(0, identifier.lastIndexOf('.') + 1);
+    NextFragmentCache.getInstance(project)
+        .processFragments(
+            stamp,
+            namespaceToAlias,
+            isDelegate,
+            localTemplateNames,
+            parentPrefix,
+            identifier,
+            (walkProcessor) ->
+                processNextFragments(
+                    trie, namespaceToAlias, nameFilter, parentPrefix, walkProcessor),
+            processor);
+  }
 
-        // Project matches into denormalized key space.
-        .flatMap(mapper::denormalizeIdentifier)
+  private static boolean processNextFragments(
+      QualifiedNameTrie trie,
+      Map<String, String> namespaceToAlias,
+      Predicate<String> nameFilter,
+      String identifier,
+      Processor<? super Fragment> processor) {
+    Set<Fragment> seenFragments = new HashSet<>();
+    Processor<Fragment> uniqueProcessor =
+        (fragment) -> !seenFragments.add(fragment) || processor.process(fragment);
 
-        // Find the denormalized keys that match the identifier.
-        .filter((key) -> key.startsWith(identifier))
+    if (!trie.processNextFragments(identifier, nameFilter, uniqueProcessor)) {
+      return false;
+    }
 
-        // Collect next fragments.
-        .map((key) -> getNextFragment(key, identifier))
-        .collect(Collectors.toList());
+    // Project the aliased namespaces into the fully qualified key space and back.
+    for (Map.Entry<String, String> entry : namespaceToAlias.entrySet()) {
+      String namespace = entry.getKey();
+      String alias = entry.getValue();
+      if (identifier.startsWith(alias)) {
+        String normalizedIdentifier = namespace + identifier.substring(alias.length());
+        boolean proceed =
+            trie.processNextFragments(
+                normalizedIdentifier,
+                nameFilter,
+                (fragment) ->
+                    uniqueProcessor.process(
+                        new Fragment(
+                            alias + fragment.text.substring(namespace.length()),
+                            fragment.isFinalFragment)));
+        if (!proceed) {
+          return false;
+        }
+      } else if (alias.startsWith(identifier)
+          && !trie.processNextFragments(namespace, nameFilter, (fragment) -> false)) {
+        String aliasFragment = alias.substring(0, alias.length() - 1);
+        if (!uniqueProcessor.process(new Fragment(aliasFragment, false))) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  static QualifiedNameTrie getNamespaceNameTrie(Project project) {
+    return CachedValuesManager.getManager(project)
+        .getCachedValue(
+            project,
+            NAMESPACE_NAME_TRIE,
+            () ->
+                CachedValueProvider.Result.create(
+                    buildNameTrie(project, NamespaceDeclarationIndex.KEY),
+                    getStubIndexModificationTracker(project)),
+            false);
+  }
+
+  private static QualifiedNameTrie getPublicTemplateNameTrie(Project project) {
+    return CachedValuesManager.getManager(project)
+        .getCachedValue(
+            project,
+            PUBLIC_TEMPLATE_NAME_TRIE,
+            () ->
+                CachedValueProvider.Result.create(
+                    buildNameTrie(project, PublicTemplateIndex.KEY),
+                    getStubIndexModificationTracker(project)),
+            false);
+  }
+
+  private static QualifiedNameTrie getDelTemplateNameTrie(Project project) {
+    return CachedValuesManager.getManager(project)
+        .getCachedValue(
+            project,
+            DEL_TEMPLATE_NAME_TRIE,
+            () ->
+                CachedValueProvider.Result.create(
+                    buildNameTrie(project, DelTemplateIndex.KEY),
+                    getStubIndexModificationTracker(project)),
+            false);
   }
 
-  private static Fragment getNextFragment(final String name, final String beginning) {
-    String[] fragments = name.substring(beginning.length()).split("\\.");
-    return new Fragment(beginning + fragments[0], fragments.length == 1);
+  private static QualifiedNameTrie buildNameTrie(
+      Project project, StubIndexKey<String, ?> indexKey) {
+    QualifiedNameTrie trie = new QualifiedNameTrie();
+    StubIndex.getInstance()
+        .processAllKeys(
+            indexKey,
+            project,
+            (key) -> {
+              trie.add(key);
+              return true;
+            });
+    return trie;
+  }
+
+  /**
+   * Returns a tracker that changes whenever the stub index changes. Unlike PSI modifications, edits
+   * inside template bodies don't change it, so the tries survive typing.
+   */
+  static ModificationTracker getStubIndexModificationTracker(Project project) {
+    return StubIndex.getInstance().getStubIndexModificationTracker(project);
   }
 
   public static class Fragment {
@@ -149,87 +298,19 @@ public class TemplateNameUtils {
       this.text = text;
       this.isFinalFragment = isFinalFragment;
     }
-  }
-
-  /** A class that manages mapping of namespaces with respect to aliases. */
-  private static class AliasMapper {
-    private final Map<String, String> namespaceToAlias;
-    private final Map<String, String> aliasToNamespace;
-    private final Pattern namespaceMatcher;
-    private final Pattern aliasMatcher;
 
-    public AliasMapper(PsiFile file) {
-      namespaceToAlias = getNamespaceAliases(file);
-      aliasToNamespace = HashBiMap.create(namespaceToAlias).inverse();
-      namespaceMatcher = getPrefixesRegex(namespaceToAlias.keySet());
-      aliasMatcher = getPrefixesRegex(aliasToNamespace.keySet());
-    }
-
-    private static Map<String, String> getNamespaceAliases(PsiFile file) {
-      Collection<SoyAliasBlock> aliasElements =
-          PsiTreeUtil.findChildrenOfType(file, SoyAliasBlock.class);
-      Map<String, String> aliases = new HashMap<>();
-      aliasElements.forEach(
-          alias -> {
-            if (alias.getNamespaceIdentifier() != null) {
-              String namespaceIdentifier = alias.getNamespaceIdentifier().getText();
-              String aliasIdentifier;
-              if (alias.getAliasIdentifier() != null) {
-                aliasIdentifier = alias.getAliasIdentifier().getText();
-              } else {
-                String[] namespaceFragments = namespaceIdentifier.split("\\.");
-                aliasIdentifier = namespaceFragments[namespaceFragments.length - 1];
-              }
-
-              // Adding dots to prevent in-token matching.
-              aliases.put(namespaceIdentifier + ".", aliasIdentifier + ".");
-            }
-          });
-      return aliases;
-    }
-
-    private static Pattern getPrefixesRegex(Collection<String> prefixes) {
-      if (prefixes.isEmpty()) {
-        // Regex that matches nothing and fails early.
-        return Pattern.compile("a^");
-      } else {
-        return Pattern.compile(
-            "^("
-                + prefixes
-                    .stream()
-                    .map((prefix) -> prefix.replace(".", "\\."))
-                    .collect(Collectors.joining("|"))
-                + ")");
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Fragment)) {
+        return false;
       }
+      Fragment fragment = (Fragment) other;
+      return text.equals(fragment.text) && isFinalFragment == fragment.isFinalFragment;
     }
 
-    public String normalizeIdentifier(String identifier) {
-      if (identifier.startsWith(".")) {
-        return identifier;
-      }
-
-      Matcher matcher = aliasMatcher.matcher(identifier);
-      if (matcher.find()) {
-        String alias = matcher.group();
-        return identifier.replace(alias, aliasToNamespace.get(alias));
-      }
-
-      return identifier;
-    }
-
-    public Stream<String> denormalizeIdentifier(String identifier) {
-      if (!namespaceMatcher.asPredicate().test(identifier)) {
-        return Stream.of(identifier);
-      }
-
-      List<String> identifiers = new ArrayList<>();
-      identifiers.add(identifier);
-      for (Map.Entry<String, String> entry : namespaceToAlias.entrySet()) {
-        if (identifier.startsWith(entry.getKey())) {
-          identifiers.add(identifier.replace(entry.getKey(), entry.getValue()));
-        }
-      }
-      return identifiers.stream();
+    @Override
+    public int hashCode() {
+      return Objects.hash(text, isFinalFragment);
     }
   }
 }
@@ -0,0 +1,109 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.lang;
+
+import com.google.bamboo.soy.parser.SoyTemplateBlock;
+import com.google.bamboo.soy.parser.SoyTypes;
+import com.intellij.lang.ASTNode;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.impl.source.tree.TreeUtil;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import java.util.HashSet;
+import java.util.Set;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The names of the variables referenced in a template, collected by one scan over its leaf
+ * tokens.
+ *
+ * <p>Variables are referenced by {@code $name} identifiers and inside double quoted strings,
+ * mirroring the references of the identifier elements without creating them.
+ */
+public class TemplateVariableUsages {
+  private final Set<String> usedNames = new HashSet<>();
+  private boolean passesData = false;
+
+  private TemplateVariableUsages(ASTNode template) {
+    ASTNode lastLeaf = TreeUtil.findLastLeaf(template);
+    CharSequence previousText = "";
+    for (ASTNode leaf = TreeUtil.findFirstLeaf(template);
+        leaf != null;
+        leaf = leaf == lastLeaf ? null : TreeUtil.nextLeaf(leaf)) {
+      IElementType type = leaf.getElementType();
+      CharSequence text = leaf.getChars();
+      ASTNode parent = leaf.getTreeParent();
+
+      if (parent != null
+          && parent.getElementType() == SoyTypes.VARIABLE_REFERENCE_IDENTIFIER
+          && type != SoyTypes.DOLLAR) {
+        usedNames.add(text.toString());
+      } else if ((type == SoyTypes.STRING_LITERAL || type == SoyTypes.MULTI_LINE_STRING_LITERAL)
+          && StringUtil.startsWithChar(text, '"')) {
+        addNamesInString(text);
+      }
+
+      if (!passesData) {
+        // The attribute may be split into the name and the '=' token.
+        passesData =
+            StringUtil.contains(text, "data=")
+                || (StringUtil.endsWith(previousText, "data")
+                    && StringUtil.startsWithChar(text, '='));
+      }
+      previousText = text;
+    }
+  }
+
+  @NotNull
+  public static TemplateVariableUsages getUsages(@NotNull SoyTemplateBlock template) {
+    return CachedValuesManager.getCachedValue(
+        template,
+        () ->
+            CachedValueProvider.Result.create(
+                new TemplateVariableUsages(template.getNode()), template));
+  }
+
+  public boolean isUsed(String name) {
+    return usedNames.contains(name);
+  }
+
+  /** Whether values are passed along with data="...", which may use any of the variables. */
+  public boolean passesData() {
+    return passesData;
+  }
+
+  private void addNamesInString(CharSequence text) {
+    for (int i = 0; i < text.length(); i++) {
+      if (text.charAt(i) != '$' || i + 1 == text.length() || !isNameStart(text.charAt(i + 1))) {
+        continue;
+      }
+      int end = i + 2;
+      while (end < text.length() && isNamePart(text.charAt(end))) {
+        end++;
+      }
+      usedNames.add(text.subSequence(i + 1, end).toString());
+      i = end - 1;
+    }
+  }
+
+  private static boolean isNameStart(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+  }
+
+  private static boolean isNamePart(char c) {
+    return isNameStart(c) || (c >= '0' && c <= '9');
+  }
+}
@@ -2,16 +2,31 @@ package com.google.bamboo.soy.lang;
 
 import com.google.bamboo.soy.elements.VariableDefinitionElement;
 import com.intellij.psi.PsiNamedElement;
+import java.util.function.Supplier;
 import org.jetbrains.annotations.NotNull;
 
 public class Variable {
   public final String name;
   public final String type;
-  public final PsiNamedElement element;
+  private final Supplier<? extends PsiNamedElement> elementSupplier;
 
   public Variable(String name, String type, @NotNull VariableDefinitionElement element) {
+    this(name, type, () -> element);
+  }
+
+  /**
+   * Creates a variable whose definition element is only looked up when requested, so that
+   * variables built from the stub tree do not load the AST of the defining file.
+   */
+  public Variable(
+      String name, String type, @NotNull Supplier<? extends PsiNamedElement> elementSupplier) {
     this.name = name.replaceFirst("^\\$", "");
     this.type = type;
-    this.element = element;
+    this.elementSupplier = elementSupplier;
+  }
+
+  /** The defining element. May load the AST of the defining file. */
+  public PsiNamedElement getElement() {
+    return elementSupplier.get();
   }
 }
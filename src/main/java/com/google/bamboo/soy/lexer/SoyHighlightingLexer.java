@@ -0,0 +1,170 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.lexer;
+
+import com.google.bamboo.soy.parser.SoyTypes;
+import com.intellij.lexer.FlexAdapter;
+import com.intellij.lexer.Lexer;
+import com.intellij.lexer.MergeFunction;
+import com.intellij.lexer.MergingLexerAdapterBase;
+import com.intellij.lexer.RestartableLexer;
+import com.intellij.lexer.TokenIterator;
+import com.intellij.psi.TokenType;
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The lexer of the editor highlighter, which can be restarted at almost any token so that edits
+ * are re-lexed locally.
+ *
+ * <p>Unlike {@link SoyLexer}, the state includes the stack of lexical states of the flex lexer,
+ * and runs of template data are cut at line ends and after {@link #MAX_MERGED_TOKEN_LENGTH}
+ * characters. Restarting before an edit and catching up with the previous tokens after it then
+ * only takes a few lines.
+ *
+ * <p>The stack only holds the states of constructs nested inside a single tag, like a comment in
+ * a tag, so it is only too deep to be saved after unterminated tags.
+ */
+public class SoyHighlightingLexer extends MergingLexerAdapterBase implements RestartableLexer {
+  static final int MAX_MERGED_TOKEN_LENGTH = 1024;
+
+  public SoyHighlightingLexer() {
+    super(new StackEncodingAdapter());
+  }
+
+  @Override
+  public MergeFunction getMergeFunction() {
+    return ((final IElementType type, final Lexer originalLexer) -> {
+      if (type != SoyTypes.OTHER && type != TokenType.WHITE_SPACE) {
+        return type;
+      }
+      IElementType returnType = type;
+      CharSequence buffer = originalLexer.getBufferSequence();
+      int end = originalLexer.getTokenStart();
+      int maxEnd = end + MAX_MERGED_TOKEN_LENGTH;
+      while (!endsLine(buffer, end)
+          && end < maxEnd
+          && (originalLexer.getTokenType() == SoyTypes.OTHER
+              || originalLexer.getTokenType() == TokenType.WHITE_SPACE)) {
+        if (originalLexer.getTokenType() == SoyTypes.OTHER) {
+          returnType = SoyTypes.OTHER;
+        }
+        originalLexer.advance();
+        end = originalLexer.getTokenStart();
+      }
+      return returnType;
+    });
+  }
+
+  private static boolean endsLine(CharSequence buffer, int offset) {
+    if (offset == 0) {
+      return false;
+    }
+    char c = buffer.charAt(offset - 1);
+    return c == '\n' || c == '\r';
+  }
+
+  @Override
+  public int getStartState() {
+    return SoyFlexLexer.YYINITIAL;
+  }
+
+  @Override
+  public boolean isRestartableState(int state) {
+    return StackEncodingAdapter.isComplete(state);
+  }
+
+  @Override
+  public void start(
+      @NotNull CharSequence buffer,
+      int startOffset,
+      int endOffset,
+      int initialState,
+      TokenIterator tokenIterator) {
+    start(buffer, startOffset, endOffset, initialState);
+  }
+
+  /**
+   * Encodes the lexical state and up to {@link #MAX_STACK_DEPTH} saved states into the lexer
+   * state. Flex states are even numbers below 32, stored halved in 4 bits:
+   *
+   * <pre>
+   *   bits 0-3    the current lexical state
+   *   bits 4-6    the stack depth, 7 if the stack is too deep to be encoded
+   *   bits 7-30   the saved states, the bottom of the stack first
+   * </pre>
+   */
+  private static class StackEncodingAdapter extends FlexAdapter {
+    private static final int MAX_STACK_DEPTH = 6;
+    private static final int OVERFLOW_DEPTH = 7;
+
+    private int encodedState;
+
+    StackEncodingAdapter() {
+      super(new SoyFlexLexer(null));
+    }
+
+    static boolean isComplete(int state) {
+      return ((state >>> 4) & 7) != OVERFLOW_DEPTH;
+    }
+
+    @Override
+    public SoyFlexLexer getFlex() {
+      return (SoyFlexLexer) super.getFlex();
+    }
+
+    @Override
+    public void start(
+        @NotNull CharSequence buffer, int startOffset, int endOffset, int initialState) {
+      super.start(buffer, startOffset, endOffset, (initialState & 15) << 1);
+      if (isComplete(initialState)) {
+        SoyFlexLexer flex = getFlex();
+        int depth = (initialState >>> 4) & 7;
+        for (int i = 0; i < depth; i++) {
+          flex.yybegin(((initialState >>> (7 + 4 * i)) & 15) << 1);
+          flex.yypush();
+        }
+        flex.yybegin((initialState & 15) << 1);
+      }
+      encodedState = encodeState();
+    }
+
+    @Override
+    public void advance() {
+      super.advance();
+      // The flex lexer now stands at the start of the next token.
+      encodedState = encodeState();
+    }
+
+    @Override
+    public int getState() {
+      return encodedState;
+    }
+
+    private int encodeState() {
+      SoyFlexLexer flex = getFlex();
+      int state = flex.yystate() >> 1;
+      int depth = flex.yystackSize();
+      if (depth > MAX_STACK_DEPTH) {
+        return state | (OVERFLOW_DEPTH << 4);
+      }
+      state |= depth << 4;
+      for (int i = 0; i < depth; i++) {
+        state |= (flex.yystackAt(i) >> 1) << (7 + 4 * i);
+      }
+      return state;
+    }
+  }
+}
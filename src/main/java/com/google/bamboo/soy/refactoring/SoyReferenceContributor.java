@@ -18,6 +18,7 @@ import static com.intellij.patterns.StandardPatterns.instanceOf;
 
 import com.google.bamboo.soy.elements.impl.IdentifierMixin;
 import com.google.bamboo.soy.elements.impl.ParamIdentifierMixin;
+import com.google.bamboo.soy.elements.impl.TemplateReferenceMixin;
 import com.intellij.patterns.PlatformPatterns;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiReference;
@@ -44,6 +45,7 @@ public class SoyReferenceContributor extends PsiReferenceContributor {
     registrar.registerReferenceProvider(
         PlatformPatterns.or(
             instanceOf(IdentifierMixin.class),
+            instanceOf(TemplateReferenceMixin.class),
             instanceOf(ParamIdentifierMixin.class)),
         PSI_REFERENCE_PROVIDER);
   }
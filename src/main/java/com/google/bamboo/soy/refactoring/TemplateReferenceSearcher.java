@@ -0,0 +1,67 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.refactoring;
+
+import com.google.bamboo.soy.lang.TemplateNameUtils;
+import com.google.bamboo.soy.parser.SoyTemplateDefinitionIdentifier;
+import com.google.bamboo.soy.parser.SoyTemplateReferenceIdentifier;
+import com.intellij.openapi.application.QueryExecutorBase;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.SearchScope;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.util.Processor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Finds template calls using the template reference stub index, so only the files that actually
+ * call the template are loaded.
+ */
+public class TemplateReferenceSearcher
+    extends QueryExecutorBase<PsiReference, ReferencesSearch.SearchParameters> {
+
+  public TemplateReferenceSearcher() {
+    super(true);
+  }
+
+  @Override
+  public void processQuery(
+      @NotNull ReferencesSearch.SearchParameters parameters,
+      @NotNull Processor<? super PsiReference> consumer) {
+    PsiElement target = parameters.getElementToSearch();
+    SearchScope scope = parameters.getEffectiveSearchScope();
+    if (target instanceof SoyTemplateDefinitionIdentifier && scope instanceof GlobalSearchScope) {
+      processReferences(
+          (SoyTemplateDefinitionIdentifier) target, (GlobalSearchScope) scope, consumer);
+    }
+  }
+
+  /** Feeds the references to the template to the consumer until it returns false. */
+  public static boolean processReferences(
+      SoyTemplateDefinitionIdentifier target,
+      GlobalSearchScope scope,
+      Processor<? super PsiReference> consumer) {
+    for (SoyTemplateReferenceIdentifier identifier :
+        TemplateNameUtils.findTemplateReferences(
+            target.getProject(), target.getFullyQualifiedName(), scope)) {
+      PsiReference reference = identifier.getReference();
+      if (reference != null && reference.isReferenceTo(target) && !consumer.process(reference)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -15,6 +15,7 @@
 package com.google.bamboo.soy.stubs;
 
 import com.google.bamboo.soy.SoyLanguage;
+import com.google.bamboo.soy.lang.Parameter;
 import com.google.bamboo.soy.parser.SoyAtParamSingle;
 import com.google.bamboo.soy.parser.impl.SoyAtParamSingleImpl;
 import com.intellij.psi.stubs.IStubElementType;
@@ -26,16 +27,34 @@ import com.intellij.psi.stubs.StubOutputStream;
 import com.intellij.util.io.StringRef;
 import java.io.IOException;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class AtParamStub extends NamedStubBase<SoyAtParamSingle> {
   public static final Type TYPE = new Type();
   public final String type;
   public final boolean isOptional;
+  public final boolean hasDefault;
 
-  AtParamStub(StubElement parent, String name, String type, boolean isOptional) {
+  AtParamStub(
+      StubElement parent, String name, String type, boolean isOptional, boolean hasDefault) {
     super(parent, TYPE, name);
     this.type = type;
     this.isOptional = isOptional;
+    this.hasDefault = hasDefault;
+  }
+
+  /**
+   * Builds the parameter from the serialized stub fields only. The definition element is resolved
+   * lazily, so that the AST of the defining file is only loaded on navigation.
+   */
+  @Nullable
+  public Parameter toParameter() {
+    String name = getName();
+    if (name == null || name.isEmpty()) {
+      return null;
+    }
+    return new Parameter(
+        name, type, isOptional, hasDefault, () -> getPsi().getParamDefinitionIdentifier());
   }
 
   static class Type extends IStubElementType<AtParamStub, SoyAtParamSingle> {
@@ -51,7 +70,8 @@ public class AtParamStub extends NamedStubBase<SoyAtParamSingle> {
     @NotNull
     @Override
     public AtParamStub createStub(@NotNull SoyAtParamSingle psi, StubElement parentStub) {
-      return new AtParamStub(parentStub, psi.getName(), psi.getType(), psi.isOptional());
+      return new AtParamStub(
+          parentStub, psi.getName(), psi.getType(), psi.isOptional(), psi.hasDefault());
     }
 
     @NotNull
@@ -66,6 +86,7 @@ public class AtParamStub extends NamedStubBase<SoyAtParamSingle> {
       dataStream.writeName(stub.getName());
       dataStream.writeName(stub.type);
       dataStream.writeBoolean(stub.isOptional);
+      dataStream.writeBoolean(stub.hasDefault);
     }
 
     @NotNull
@@ -74,8 +95,9 @@ public class AtParamStub extends NamedStubBase<SoyAtParamSingle> {
         throws IOException {
       final StringRef ref = dataStream.readName();
       final StringRef ref2 = dataStream.readName();
-      return new AtParamStub(
-          parentStub, ref.getString(), ref2.getString(), dataStream.readBoolean());
+      boolean isOptional = dataStream.readBoolean();
+      boolean hasDefault = dataStream.readBoolean();
+      return new AtParamStub(parentStub, ref.getString(), ref2.getString(), isOptional, hasDefault);
     }
 
     @Override
@@ -15,6 +15,7 @@
 package com.google.bamboo.soy.stubs;
 
 import com.google.bamboo.soy.SoyLanguage;
+import com.google.bamboo.soy.lang.StateVariable;
 import com.google.bamboo.soy.parser.SoyAtStateSingle;
 import com.google.bamboo.soy.parser.impl.SoyAtStateSingleImpl;
 import com.intellij.psi.stubs.IStubElementType;
@@ -26,6 +27,7 @@ import com.intellij.psi.stubs.StubOutputStream;
 import com.intellij.util.io.StringRef;
 import java.io.IOException;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class AtStateStub extends NamedStubBase<SoyAtStateSingle> {
 
@@ -37,6 +39,19 @@ public class AtStateStub extends NamedStubBase<SoyAtStateSingle> {
     this.type = type;
   }
 
+  /**
+   * Builds the state variable from the serialized stub fields only, see {@link
+   * AtParamStub#toParameter()}.
+   */
+  @Nullable
+  public StateVariable toStateVariable() {
+    String name = getName();
+    if (name == null || name.isEmpty()) {
+      return null;
+    }
+    return new StateVariable(name, type, () -> getPsi().getParamDefinitionIdentifier());
+  }
+
   static class Type extends IStubElementType<AtStateStub, SoyAtStateSingle> {
 
     Type() {
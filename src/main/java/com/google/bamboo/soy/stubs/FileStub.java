@@ -16,6 +16,7 @@ package com.google.bamboo.soy.stubs;
 
 import com.google.bamboo.soy.SoyLanguage;
 import com.google.bamboo.soy.file.SoyFile;
+import com.google.bamboo.soy.lang.AliasMapper;
 import com.intellij.lang.Language;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.StubBuilder;
@@ -25,14 +26,27 @@ import com.intellij.psi.stubs.StubElement;
 import com.intellij.psi.stubs.StubInputStream;
 import com.intellij.psi.stubs.StubOutputStream;
 import com.intellij.psi.tree.IStubFileElementType;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import org.jetbrains.annotations.NotNull;
 
 public class FileStub extends PsiFileStubImpl<SoyFile> {
 
   public static final Type TYPE = new Type("SoyFile", SoyLanguage.INSTANCE);
 
+  private final Map<String, String> namespaceAliases;
+  private volatile AliasMapper aliasMapper;
+
   public FileStub(SoyFile file) {
+    this(file, AliasMapper.getNamespaceAliases(file));
+  }
+
+  private FileStub(SoyFile file, Map<String, String> namespaceAliases) {
     super(file);
+    this.namespaceAliases = namespaceAliases;
   }
 
   @Override
@@ -48,9 +62,28 @@ public class FileStub extends PsiFileStubImpl<SoyFile> {
     return namespaceDeclaration == null ? "" : namespaceDeclaration.getName();
   }
 
+  public AliasMapper getAliasMapper() {
+    if (aliasMapper == null) {
+      aliasMapper = new AliasMapper(namespaceAliases);
+    }
+    return aliasMapper;
+  }
+
+  // May only be called when the stub tree is fully constructed.
+  public List<String> getLocalTemplateNames() {
+    return getChildrenStubs()
+        .stream()
+        .filter(stub -> stub instanceof TemplateBlockStub)
+        .map(stub -> (TemplateBlockStub) stub)
+        .filter(stub -> !stub.isDelegate)
+        .map(TemplateBlockStub::getName)
+        .filter(name -> !name.isEmpty())
+        .collect(Collectors.toList());
+  }
+
   static class Type extends IStubFileElementType<FileStub> {
 
-    public static final int VERSION = 4;
+    public static final int VERSION = 9;
 
     public Type(String debugName, Language language) {
       super(debugName, language);
@@ -73,13 +106,25 @@ public class FileStub extends PsiFileStubImpl<SoyFile> {
     }
 
     @Override
-    public void serialize(@NotNull FileStub stub, @NotNull StubOutputStream dataStream) {
+    public void serialize(@NotNull FileStub stub, @NotNull StubOutputStream dataStream)
+        throws IOException {
+      dataStream.writeVarInt(stub.namespaceAliases.size());
+      for (Map.Entry<String, String> entry : stub.namespaceAliases.entrySet()) {
+        dataStream.writeName(entry.getKey());
+        dataStream.writeName(entry.getValue());
+      }
     }
 
     @Override
     @NotNull
-    public FileStub deserialize(@NotNull StubInputStream dataStream, StubElement parentStub) {
-      return new FileStub(null);
+    public FileStub deserialize(@NotNull StubInputStream dataStream, StubElement parentStub)
+        throws IOException {
+      int aliasCount = dataStream.readVarInt();
+      Map<String, String> namespaceAliases = new HashMap<>();
+      for (int i = 0; i < aliasCount; i++) {
+        namespaceAliases.put(dataStream.readNameString(), dataStream.readNameString());
+      }
+      return new FileStub(null, namespaceAliases);
     }
 
     @Override
@@ -19,12 +19,14 @@ import com.intellij.psi.stubs.IStubElementType;
 
 public abstract class StubFactory {
   private static final ImmutableMap<String, IStubElementType> stubTypeByElement =
-      ImmutableMap.of(
-          "TEMPLATE_BLOCK", TemplateBlockStub.TYPE,
-          "TEMPLATE_DEFINITION_IDENTIFIER", TemplateDefinitionStub.TYPE,
-          "NAMESPACE_DECLARATION_IDENTIFIER", NamespaceDeclarationStub.TYPE,
-          "AT_PARAM_SINGLE", AtParamStub.TYPE,
-          "AT_STATE_SINGLE", AtStateStub.TYPE);
+      ImmutableMap.<String, IStubElementType>builder()
+          .put("TEMPLATE_BLOCK", TemplateBlockStub.TYPE)
+          .put("TEMPLATE_DEFINITION_IDENTIFIER", TemplateDefinitionStub.TYPE)
+          .put("TEMPLATE_REFERENCE_IDENTIFIER", TemplateReferenceStub.TYPE)
+          .put("NAMESPACE_DECLARATION_IDENTIFIER", NamespaceDeclarationStub.TYPE)
+          .put("AT_PARAM_SINGLE", AtParamStub.TYPE)
+          .put("AT_STATE_SINGLE", AtStateStub.TYPE)
+          .build();
 
   public static IStubElementType<?, ?> getType(String elementName) {
     return stubTypeByElement.get(elementName);
@@ -14,44 +14,87 @@
 
 package com.google.bamboo.soy.stubs;
 
+import com.google.bamboo.soy.elements.impl.TemplateBlockMixin;
 import com.google.bamboo.soy.lang.Parameter;
 import com.google.bamboo.soy.SoyLanguage;
 import com.google.bamboo.soy.lang.StateVariable;
+import com.google.bamboo.soy.lexer.SoyLexer;
+import com.google.bamboo.soy.lexer.SoyTokenTypes;
+import com.google.bamboo.soy.parser.SoyParser;
+import com.google.bamboo.soy.parser.SoyParserDefinition;
 import com.google.bamboo.soy.parser.SoyTemplateBlock;
+import com.google.bamboo.soy.parser.SoyTypes;
 import com.google.bamboo.soy.parser.impl.SoyTemplateBlockImpl;
+import com.google.bamboo.soy.stubs.index.DelTemplateIndex;
+import com.google.bamboo.soy.stubs.index.PublicTemplateIndex;
 import com.google.bamboo.soy.stubs.index.TemplateBlockIndex;
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.Language;
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.PsiBuilderFactory;
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.impl.source.tree.SharedImplUtil;
 import com.intellij.psi.stubs.IStubElementType;
 import com.intellij.psi.stubs.IndexSink;
 import com.intellij.psi.stubs.StubBase;
 import com.intellij.psi.stubs.StubElement;
 import com.intellij.psi.stubs.StubInputStream;
 import com.intellij.psi.stubs.StubOutputStream;
+import com.intellij.psi.tree.ICustomParsingType;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.IReparseableElementTypeBase;
+import com.intellij.psi.tree.TokenSet;
+import com.intellij.util.CharTable;
+import com.intellij.util.io.StringRef;
 import java.io.IOException;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public class TemplateBlockStub extends StubBase<SoyTemplateBlock> {
   public static final Type TYPE = new Type();
   public final boolean isDelegate;
+  public final boolean isElement;
+  public final boolean isPrivate;
+  public final boolean isStrictHtml;
+  @NotNull public final String kind;
+  @NotNull public final String docSummary;
 
-  TemplateBlockStub(StubElement parent, boolean isDelegate) {
+  TemplateBlockStub(
+      StubElement parent,
+      boolean isDelegate,
+      boolean isElement,
+      boolean isPrivate,
+      boolean isStrictHtml,
+      @NotNull String kind,
+      @NotNull String docSummary) {
     super(parent, TYPE);
     this.isDelegate = isDelegate;
+    this.isElement = isElement;
+    this.isPrivate = isPrivate;
+    this.isStrictHtml = isStrictHtml;
+    this.kind = kind;
+    this.docSummary = docSummary;
+  }
+
+  // May only be called when the stub tree is fully constructed.
+  @Nullable
+  public TemplateDefinitionStub getDefinitionStub() {
+    return findChildStubByType(TemplateDefinitionStub.TYPE);
   }
 
   // May only be called when the stub tree is fully constructed.
   public String getFullyQualifiedName() {
-    TemplateDefinitionStub templateDefinition =
-        findChildStubByType(TemplateDefinitionStub.TYPE);
+    TemplateDefinitionStub templateDefinition = getDefinitionStub();
     return templateDefinition == null ? "" : templateDefinition.getFullyQualifiedName();
   }
 
   // May only be called when the stub tree is fully constructed.
   public String getName() {
-    TemplateDefinitionStub templateDefinition =
-        findChildStubByType(TemplateDefinitionStub.TYPE);
+    TemplateDefinitionStub templateDefinition = getDefinitionStub();
     return templateDefinition == null ? "" : templateDefinition.getName();
   }
 
@@ -60,7 +103,7 @@ public class TemplateBlockStub extends StubBase<SoyTemplateBlock> {
     return getChildrenStubs()
         .stream()
         .filter(stub -> stub instanceof AtParamStub)
-        .map(stub -> ((AtParamStub) stub).getPsi().toParameter())
+        .map(stub -> ((AtParamStub) stub).toParameter())
         .filter(Objects::nonNull)
         .collect(Collectors.toList());
   }
@@ -70,16 +113,112 @@ public class TemplateBlockStub extends StubBase<SoyTemplateBlock> {
     return getChildrenStubs()
         .stream()
         .filter(stub -> stub instanceof AtStateStub)
-        .map(stub -> ((AtStateStub) stub).getPsi().toStateVariable())
+        .map(stub -> ((AtStateStub) stub).toStateVariable())
         .filter(Objects::nonNull)
         .collect(Collectors.toList());
   }
 
-  static class Type extends IStubElementType<TemplateBlockStub, SoyTemplateBlock> {
+  /**
+   * The element type of template blocks.
+   *
+   * <p>Template blocks are reparseable: an edit inside a single template only reparses that
+   * template as long as it still starts with its opening tag, ends with the matching closing tag
+   * and its braces balance.
+   */
+  static class Type extends IStubElementType<TemplateBlockStub, SoyTemplateBlock>
+      implements IReparseableElementTypeBase, ICustomParsingType {
+    private static final TokenSet TEMPLATE_KEYWORDS =
+        TokenSet.create(SoyTypes.TEMPLATE, SoyTypes.DELTEMPLATE, SoyTypes.ELEMENT);
+    private static final TokenSet OPENING_BRACES =
+        TokenSet.create(
+            SoyTypes.LBRACE,
+            SoyTypes.LBRACE_LBRACE,
+            SoyTypes.LBRACE_SLASH,
+            SoyTypes.LBRACE_LBRACE_SLASH);
+    private static final TokenSet CLOSING_BRACES =
+        TokenSet.create(
+            SoyTypes.RBRACE,
+            SoyTypes.RBRACE_RBRACE,
+            SoyTypes.SLASH_RBRACE,
+            SoyTypes.SLASH_RBRACE_RBRACE);
+    private static final TokenSet SKIPPED_TOKENS =
+        TokenSet.orSet(SoyTokenTypes.WHITE_SPACES, SoyTokenTypes.COMMENTS);
+
     Type() {
       super("TEMPLATE_BLOCK", SoyLanguage.INSTANCE);
     }
 
+    @Override
+    public boolean isParsable(
+        @Nullable ASTNode parent,
+        @NotNull CharSequence buffer,
+        @NotNull Language fileLanguage,
+        @NotNull Project project) {
+      return fileLanguage.isKindOf(SoyLanguage.INSTANCE) && isSingleTemplateBlock(buffer);
+    }
+
+    /**
+     * Checks on the token level that the text is a single template block, so that parsing it in
+     * isolation produces the same tree as a full reparse would.
+     */
+    private static boolean isSingleTemplateBlock(CharSequence buffer) {
+      Lexer lexer = new SoyLexer();
+      lexer.start(buffer);
+
+      int depth = 0;
+      int templateTags = 0;
+      IElementType previousToken = null;
+      IElementType openingKeyword = null;
+      IElementType closingKeyword = null;
+      for (IElementType token; (token = lexer.getTokenType()) != null; lexer.advance()) {
+        if (SKIPPED_TOKENS.contains(token)) {
+          continue;
+        }
+        if (closingKeyword != null && token != SoyTypes.RBRACE) {
+          // Only the closing tag may follow the closing template keyword.
+          return false;
+        }
+        if (OPENING_BRACES.contains(token)) {
+          depth++;
+        } else if (CLOSING_BRACES.contains(token)) {
+          if (--depth < 0) {
+            return false;
+          }
+        } else if (TEMPLATE_KEYWORDS.contains(token)) {
+          if (previousToken == SoyTypes.LBRACE || previousToken == SoyTypes.LBRACE_LBRACE) {
+            if (++templateTags > 1) {
+              return false;
+            }
+            openingKeyword = token;
+          } else if (previousToken == SoyTypes.LBRACE_SLASH) {
+            if (token != openingKeyword) {
+              return false;
+            }
+            closingKeyword = token;
+          }
+        } else if (openingKeyword == null) {
+          // The opening tag must come first.
+          return false;
+        }
+        previousToken = token;
+      }
+      return depth == 0 && closingKeyword != null && previousToken == SoyTypes.RBRACE;
+    }
+
+    @NotNull
+    @Override
+    public ASTNode parse(@NotNull CharSequence text, @NotNull CharTable table) {
+      PsiBuilder builder =
+          PsiBuilderFactory.getInstance()
+              .createBuilder(new SoyParserDefinition(), new SoyLexer(), text);
+      return new SoyParser().parse(this, builder);
+    }
+
+    @Override
+    public ASTNode parseContents(@NotNull ASTNode chameleon) {
+      return parse(chameleon.getChars(), SharedImplUtil.findCharTableByTree(chameleon));
+    }
+
     @Override
     public SoyTemplateBlock createPsi(@NotNull TemplateBlockStub stub) {
       return new SoyTemplateBlockImpl(stub, this);
@@ -88,7 +227,14 @@ public class TemplateBlockStub extends StubBase<SoyTemplateBlock> {
     @NotNull
     @Override
     public TemplateBlockStub createStub(@NotNull SoyTemplateBlock psi, StubElement parentStub) {
-      return new TemplateBlockStub(parentStub, psi.isDelegate());
+      return new TemplateBlockStub(
+          parentStub,
+          psi.isDelegate(),
+          ((TemplateBlockMixin) psi).isElementBlock(),
+          psi.isPrivate(),
+          psi.isStrictHtml(),
+          psi.getKind(),
+          psi.getDocSummary());
     }
 
     @NotNull
@@ -101,18 +247,42 @@ public class TemplateBlockStub extends StubBase<SoyTemplateBlock> {
     public void serialize(@NotNull TemplateBlockStub stub, @NotNull StubOutputStream dataStream)
         throws IOException {
       dataStream.writeBoolean(stub.isDelegate);
+      dataStream.writeBoolean(stub.isElement);
+      dataStream.writeBoolean(stub.isPrivate);
+      dataStream.writeBoolean(stub.isStrictHtml);
+      dataStream.writeName(stub.kind);
+      dataStream.writeUTFFast(stub.docSummary);
     }
 
     @NotNull
     @Override
     public TemplateBlockStub deserialize(
         @NotNull StubInputStream dataStream, StubElement parentStub) throws IOException {
-      return new TemplateBlockStub(parentStub, dataStream.readBoolean());
+      boolean isDelegate = dataStream.readBoolean();
+      boolean isElement = dataStream.readBoolean();
+      boolean isPrivate = dataStream.readBoolean();
+      boolean isStrictHtml = dataStream.readBoolean();
+      StringRef kind = dataStream.readName();
+      String docSummary = dataStream.readUTFFast();
+      return new TemplateBlockStub(
+          parentStub,
+          isDelegate,
+          isElement,
+          isPrivate,
+          isStrictHtml,
+          kind == null ? "" : kind.getString(),
+          docSummary);
     }
 
     @Override
     public void indexStub(@NotNull TemplateBlockStub stub, @NotNull IndexSink sink) {
-      sink.occurrence(TemplateBlockIndex.KEY, stub.getFullyQualifiedName());
+      String name = stub.getFullyQualifiedName();
+      sink.occurrence(TemplateBlockIndex.KEY, name);
+      if (stub.isDelegate) {
+        sink.occurrence(DelTemplateIndex.KEY, name);
+      } else if (!stub.isPrivate) {
+        sink.occurrence(PublicTemplateIndex.KEY, name);
+      }
     }
   }
 }
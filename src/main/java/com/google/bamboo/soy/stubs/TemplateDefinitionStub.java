@@ -35,7 +35,7 @@ public class TemplateDefinitionStub extends NamedStubBase<SoyTemplateDefinitionI
   }
 
   // May only be called when the stub tree is fully constructed.
-  String getFullyQualifiedName() {
+  public String getFullyQualifiedName() {
     return getName().startsWith(".") ? getNamespace() + getName() : getName();
   }
 
@@ -0,0 +1,96 @@
+// Copyright 2021 Google Inc.
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.bamboo.soy.stubs;
+
+import com.google.bamboo.soy.SoyLanguage;
+import com.google.bamboo.soy.parser.SoyTemplateReferenceIdentifier;
+import com.google.bamboo.soy.parser.impl.SoyTemplateReferenceIdentifierImpl;
+import com.google.bamboo.soy.stubs.index.TemplateReferenceIndex;
+import com.intellij.psi.stubs.IStubElementType;
+import com.intellij.psi.stubs.IndexSink;
+import com.intellij.psi.stubs.StubBase;
+import com.intellij.psi.stubs.StubElement;
+import com.intellij.psi.stubs.StubInputStream;
+import com.intellij.psi.stubs.StubOutputStream;
+import java.io.IOException;
+import org.jetbrains.annotations.NotNull;
+
+/** The stub of a template name referenced by a {call} or {delcall} tag. */
+public class TemplateReferenceStub extends StubBase<SoyTemplateReferenceIdentifier> {
+  public static final Type TYPE = new Type();
+  public final String name;
+
+  TemplateReferenceStub(StubElement parent, String name) {
+    super(parent, TYPE);
+    this.name = name;
+  }
+
+  /**
+   * Returns the referenced template name with the relative name and namespace aliases resolved.
+   *
+   * <p>May only be called when the stub tree is fully constructed.
+   */
+  public String getFullyQualifiedName() {
+    FileStub fileStub = StubUtils.getContainingStubFile(this);
+    assert fileStub != null;
+    return name.startsWith(".")
+        ? fileStub.getNamespace() + name
+        : fileStub.getAliasMapper().normalizeIdentifier(name);
+  }
+
+  static class Type
+      extends IStubElementType<TemplateReferenceStub, SoyTemplateReferenceIdentifier> {
+    Type() {
+      super("TEMPLATE_REFERENCE_IDENTIFIER", SoyLanguage.INSTANCE);
+    }
+
+    @Override
+    public SoyTemplateReferenceIdentifier createPsi(@NotNull TemplateReferenceStub stub) {
+      return new SoyTemplateReferenceIdentifierImpl(stub, this);
+    }
+
+    @NotNull
+    @Override
+    public TemplateReferenceStub createStub(
+        @NotNull SoyTemplateReferenceIdentifier psi, StubElement parentStub) {
+      return new TemplateReferenceStub(parentStub, psi.getText());
+    }
+
+    @NotNull
+    @Override
+    public String getExternalId() {
+      return "TEMPLATE_REFERENCE_IDENTIFIER";
+    }
+
+    @Override
+    public void serialize(
+        @NotNull TemplateReferenceStub stub, @NotNull StubOutputStream dataStream)
+        throws IOException {
+      dataStream.writeName(stub.name);
+    }
+
+    @NotNull
+    @Override
+    public TemplateReferenceStub deserialize(
+        @NotNull StubInputStream dataStream, StubElement parentStub) throws IOException {
+      return new TemplateReferenceStub(parentStub, dataStream.readNameString());
+    }
+
+    @Override
+    public void indexStub(@NotNull TemplateReferenceStub stub, @NotNull IndexSink sink) {
+      sink.occurrence(TemplateReferenceIndex.KEY, stub.getFullyQualifiedName());
+    }
+  }
+}
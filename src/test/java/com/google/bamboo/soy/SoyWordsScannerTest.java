@@ -0,0 +1,68 @@
+package com.google.bamboo.soy;
+
+import com.intellij.lang.cacheBuilder.WordOccurrence;
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.TestCase;
+
+public class SoyWordsScannerTest extends TestCase {
+
+  private static List<String> scan(String text) {
+    List<String> words = new ArrayList<>();
+    new SoyWordsScanner()
+        .processWords(
+            text,
+            occurrence -> {
+              CharSequence word =
+                  occurrence.getBaseText().subSequence(occurrence.getStart(), occurrence.getEnd());
+              words.add(word + ":" + occurrence.getKind());
+              return true;
+            });
+    return words;
+  }
+
+  private static List<String> scanWords(String text) {
+    List<String> words = new ArrayList<>();
+    for (String word : scan(text)) {
+      words.add(word.substring(0, word.indexOf(':')));
+    }
+    return words;
+  }
+
+  private static String code(String word) {
+    return word + ":" + WordOccurrence.Kind.CODE;
+  }
+
+  public void testQualifiedNamesAreReportedWholeAndBySegment() {
+    List<String> words = scan("{call foo.bar.baz /}");
+    assertTrue(words.toString(), words.contains(code("foo")));
+    assertTrue(words.toString(), words.contains(code("bar")));
+    assertTrue(words.toString(), words.contains(code("baz")));
+    assertTrue(words.toString(), words.contains(code("foo.bar.baz")));
+  }
+
+  public void testLocalNamesAreNotDuplicated() {
+    List<String> words = scanWords("{call .moon /}");
+    assertEquals(1, words.stream().filter("moon"::equals).count());
+    assertFalse(words.contains(".moon"));
+  }
+
+  public void testAliases() {
+    List<String> words = scanWords("{alias space.planets as planets}");
+    assertTrue(words.toString(), words.contains("space"));
+    assertTrue(words.toString(), words.contains("space.planets"));
+    assertTrue(words.toString(), words.contains("planets"));
+  }
+
+  public void testVariablesInStringLiterals() {
+    List<String> words = scan("{template .t}{@param p: string}{call .c data=\"$p.moon\" /}");
+    assertTrue(words.toString(), words.contains(code("p")));
+    assertTrue(words.toString(), words.contains("moon:" + WordOccurrence.Kind.LITERALS));
+  }
+
+  public void testComments() {
+    List<String> words = scan("/** The planet. */\n{template .t}{/template} // A moon.\n");
+    assertTrue(words.toString(), words.contains("planet:" + WordOccurrence.Kind.COMMENTS));
+    assertTrue(words.toString(), words.contains("moon:" + WordOccurrence.Kind.COMMENTS));
+  }
+}
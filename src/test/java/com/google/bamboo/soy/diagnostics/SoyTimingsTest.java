@@ -0,0 +1,54 @@
+package com.google.bamboo.soy.diagnostics;
+
+import com.google.bamboo.soy.SoyCodeInsightFixtureTestCase;
+import com.google.bamboo.soy.file.SoyFileType;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+
+public class SoyTimingsTest extends SoyCodeInsightFixtureTestCase {
+
+  public void testRecordsAnnotatorsWhenEnabled() {
+    Registry.get("soy.timings.enabled").setValue(true, getTestRootDisposable());
+    SoyTimings.reset();
+
+    myFixture.configureByText(
+        SoyFileType.INSTANCE,
+        "{namespace timings}\n"
+            + "{template .planet}\n"
+            + "  {@param name: string}\n"
+            + "  {$name}\n"
+            + "{/template}\n");
+    myFixture.doHighlighting();
+
+    String report = SoyTimings.getReport();
+    assertTrue(report, report.contains("CaseAndDefaultAnnotator"));
+    assertTrue(report, report.contains("aFile.soy"));
+  }
+
+  public void testRecordsFormattingBlocksAndSpacing() {
+    Registry.get("soy.timings.enabled").setValue(true, getTestRootDisposable());
+    SoyTimings.reset();
+
+    myFixture.configureByText(
+        SoyFileType.INSTANCE,
+        "{namespace timings}\n{template .planet}\n{if true}\n{/if}\n{/template}\n");
+    WriteCommandAction.runWriteCommandAction(
+        getProject(),
+        () -> CodeStyleManager.getInstance(getProject()).reformat(myFixture.getFile()));
+
+    String report = SoyTimings.getReport();
+    assertTrue(report, report.contains("Formatting blocks"));
+    assertTrue(report, report.contains("Formatting spacing"));
+  }
+
+  public void testRecordsNothingWhenDisabled() {
+    SoyTimings.reset();
+
+    myFixture.configureByText(
+        SoyFileType.INSTANCE, "{namespace timings}\n{template .planet}{/template}\n");
+    myFixture.doHighlighting();
+
+    assertFalse(SoyTimings.getReport().contains("Annotator"));
+  }
+}
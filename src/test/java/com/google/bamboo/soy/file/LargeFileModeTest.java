@@ -0,0 +1,79 @@
+package com.google.bamboo.soy.file;
+
+import com.google.bamboo.soy.SoyCodeInsightFixtureTestCase;
+import com.google.bamboo.soy.SoyLanguage;
+import com.google.bamboo.soy.insight.folding.SoyFoldingBuilder;
+import com.intellij.lang.annotation.HighlightSeverity;
+import com.intellij.lang.folding.FoldingDescriptor;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.testFramework.PlatformTestUtil;
+
+public class LargeFileModeTest extends SoyCodeInsightFixtureTestCase {
+
+  private static final String FILE =
+      "{namespace large}\n"
+          + "{template .first}\n"
+          + "  {@param unused: string}\n"
+          + "  {call .second}\n"
+          + "    {param planet: 'earth' /}\n"
+          + "  {/call}\n"
+          + "{/template}\n"
+          + "{template .second}\n"
+          + "  {call .unknown /}\n"
+          + "{/template}\n";
+
+  public void testSmallFile() {
+    PsiFile file = myFixture.configureByText(SoyFileType.INSTANCE, FILE);
+
+    assertFalse(LargeFileMode.isLargeFile(file));
+    assertSize(2, file.getViewProvider().getLanguages());
+    assertNotEmpty(myFixture.doHighlighting(HighlightSeverity.WARNING));
+  }
+
+  public void testLargeFileIsOnlyLexed() {
+    Registry.get("soy.large.file.size.kb").setValue(0, getTestRootDisposable());
+    PsiFile file = myFixture.configureByText(SoyFileType.INSTANCE, FILE);
+
+    assertTrue(LargeFileMode.isLargeFile(file));
+    assertSameElements(file.getViewProvider().getLanguages(), SoyLanguage.INSTANCE);
+    assertEmpty(myFixture.doHighlighting(HighlightSeverity.WARNING));
+
+    // The call statement is not folded.
+    FoldingDescriptor[] descriptors =
+        new SoyFoldingBuilder().buildFoldRegions(file, myFixture.getEditor().getDocument(), false);
+    assertSize(2, descriptors);
+  }
+
+  public void testLineThreshold() {
+    Registry.get("soy.large.file.lines").setValue(5, getTestRootDisposable());
+    PsiFile file = myFixture.configureByText(SoyFileType.INSTANCE, FILE);
+
+    assertTrue(LargeFileMode.isLargeFile(file));
+    assertSameElements(file.getViewProvider().getLanguages(), SoyLanguage.INSTANCE);
+    assertEmpty(myFixture.doHighlighting(HighlightSeverity.WARNING));
+  }
+
+  public void testGrowingFileGetsNewViewProvider() {
+    Registry.get("soy.large.file.lines").setValue(20, getTestRootDisposable());
+    PsiFile file = myFixture.configureByText(SoyFileType.INSTANCE, FILE);
+    assertFalse(LargeFileMode.isLargeFile(file));
+    assertSize(2, file.getViewProvider().getLanguages());
+
+    WriteCommandAction.runWriteCommandAction(
+        getProject(),
+        () -> myFixture.getEditor().getDocument().insertString(0, StringUtil.repeat("\n", 20)));
+    PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+    // The old view provider keeps its languages until it is replaced.
+    assertFalse(LargeFileMode.isLargeFile(file));
+    PlatformTestUtil.dispatchAllInvocationEventsInIdeEventQueue();
+
+    PsiFile grownFile = PsiManager.getInstance(getProject()).findFile(file.getVirtualFile());
+    assertTrue(LargeFileMode.isLargeFile(grownFile));
+    assertSameElements(grownFile.getViewProvider().getLanguages(), SoyLanguage.INSTANCE);
+  }
+}
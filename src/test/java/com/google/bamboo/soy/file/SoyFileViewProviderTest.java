@@ -0,0 +1,64 @@
+package com.google.bamboo.soy.file;
+
+import com.google.bamboo.soy.SoyCodeInsightFixtureTestCase;
+import com.google.bamboo.soy.lang.SoyFileModel;
+import com.google.bamboo.soy.parser.SoyTemplateBlock;
+import com.intellij.lang.html.HTMLLanguage;
+import com.intellij.psi.FileViewProvider;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.impl.source.PsiFileImpl;
+import com.intellij.psi.util.PsiTreeUtil;
+
+public class SoyFileViewProviderTest extends SoyCodeInsightFixtureTestCase {
+
+  private static String generateFile(int templates) {
+    StringBuilder builder = new StringBuilder("{namespace lazy}\n\n");
+    for (int i = 0; i < templates; i++) {
+      builder
+          .append("{template .template").append(i).append("}\n")
+          .append("  {@param planet: string}\n")
+          .append("  <div class=\"planet\">{$planet}</div>\n");
+      if (i > 0) {
+        builder.append("  {call .template").append(i - 1).append(" data=\"all\" /}\n");
+      }
+      builder.append("{/template}\n\n");
+    }
+    return builder.toString();
+  }
+
+  private static boolean isHtmlTreeLoaded(PsiFile file) {
+    PsiFile htmlFile = file.getViewProvider().getPsi(HTMLLanguage.INSTANCE);
+    return ((PsiFileImpl) htmlFile).getTreeElement() != null;
+  }
+
+  public void testSoyFeaturesDoNotLoadHtmlTree() {
+    PsiFile file = myFixture.addFileToProject("lazy.soy", generateFile(3));
+    FileViewProvider viewProvider = file.getViewProvider();
+
+    assertSize(3, PsiTreeUtil.findChildrenOfType(file, SoyTemplateBlock.class));
+    assertSize(3, SoyFileModel.getModel(file).getTemplates());
+    int callOffset = file.getText().indexOf("{call .template1") + "{call .".length();
+    PsiElement element = viewProvider.findElementAt(callOffset);
+    assertNotNull(element);
+    PsiReference reference = viewProvider.findReferenceAt(callOffset);
+    assertNotNull(reference);
+    assertNotNull(reference.resolve());
+    assertFalse(isHtmlTreeLoaded(file));
+
+    // Template data is still looked up in the HTML tree.
+    PsiElement html = viewProvider.findElementAt(file.getText().indexOf("<div") + 1);
+    assertEquals(HTMLLanguage.INSTANCE, html.getLanguage());
+    assertTrue(isHtmlTreeLoaded(file));
+  }
+
+  public void testTemplateHeavyFileModelDoesNotLoadHtmlTree() {
+    PsiFile file = myFixture.addFileToProject("heavy.soy", generateFile(2000));
+    myFixture.getPsiManager().dropPsiCaches();
+    PsiFile reloaded = myFixture.getPsiManager().findFile(file.getVirtualFile());
+
+    assertSize(2000, SoyFileModel.getModel(reloaded).getTemplates());
+    assertFalse(isHtmlTreeLoaded(reloaded));
+  }
+}
@@ -19,6 +19,10 @@ import com.google.bamboo.soy.file.SoyFileType;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.intellij.codeInsight.completion.CompletionType;
+import com.intellij.codeInsight.lookup.LookupElement;
+import com.intellij.codeInsight.lookup.LookupElementPresentation;
+import com.intellij.codeInsight.lookup.LookupElementRenderer;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 
@@ -257,4 +261,36 @@ public class SoyCompletionTest extends SoyCodeInsightFixtureTestCase {
         "{template .foo kind=\"<caret>\"}",
         ImmutableSet.of("css", "js", "attributes", "html", "text", "uri"));
   }
+
+  @SuppressWarnings("unchecked")
+  public void testTemplateSignatureIsRenderedLazily() {
+    myFixture.addFileToProject(
+        "callee.soy",
+        "{namespace signature.callee}\n"
+            + "{template .moon kind=\"text\"}\n"
+            + "  {@param planet: string}\n"
+            + "  {@param? phases: list<string>}\n"
+            + "  {$planet} {$phases}\n"
+            + "{/template}\n"
+            + "{template .mars}{/template}\n");
+    myFixture.configureByText(
+        SoyFileType.INSTANCE, "{template .caller}{call signature.callee.m<caret> /}{/template}");
+    LookupElement moon =
+        Arrays.stream(myFixture.completeBasic())
+            .filter((element) -> element.getLookupString().equals("signature.callee.moon"))
+            .findFirst()
+            .orElseThrow(AssertionError::new);
+
+    // The cheap presentation doesn't look up the declaration.
+    LookupElementPresentation presentation = LookupElementPresentation.renderElement(moon);
+    assertEquals("Template", presentation.getTypeText());
+    assertNull(presentation.getTailText());
+
+    LookupElementPresentation expensivePresentation = new LookupElementPresentation();
+    ((LookupElementRenderer<LookupElement>) moon.getExpensiveRenderer())
+        .renderElement(moon, expensivePresentation);
+    assertEquals("signature.callee.moon", expensivePresentation.getItemText());
+    assertEquals("Template (text)", expensivePresentation.getTypeText());
+    assertEquals("(planet, phases?)", expensivePresentation.getTailText());
+  }
 }
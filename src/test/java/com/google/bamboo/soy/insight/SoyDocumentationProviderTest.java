@@ -16,7 +16,11 @@ package com.google.bamboo.soy.insight;
 
 import com.google.bamboo.soy.SoyCodeInsightFixtureTestCase;
 import com.google.bamboo.soy.insight.documentation.SoyDocumentationProvider;
+import com.google.bamboo.soy.stubs.index.TemplateBlockIndex;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.impl.PsiManagerEx;
 
 public class SoyDocumentationProviderTest extends SoyCodeInsightFixtureTestCase {
 
@@ -70,4 +74,29 @@ public class SoyDocumentationProviderTest extends SoyCodeInsightFixtureTestCase
   public void testLetDefinitionReferenceTrailingDoc() {
     doTest("Defined at LetDefinitionReferenceTrailingDoc.soy:4", "Same-line doc");
   }
+
+  public void testTemplateQuickNavigateInfoUsesStubs() {
+    VirtualFile callee = myFixture.copyFileToProject("TemplateSignatureCallee.soy");
+    // Make sure the callee is indexed before asserting on AST loading.
+    TemplateBlockIndex.INSTANCE.getAllKeys(getProject());
+    PsiManagerEx.getInstanceEx(getProject())
+        .setAssertOnFileLoadingFilter(callee::equals, getTestRootDisposable());
+
+    myFixture.configureByFile("TemplateSignatureCaller.soy");
+    PsiReference reference = myFixture.getFile().findReferenceAt(myFixture.getCaretOffset());
+    assertNotNull(reference);
+    PsiElement element = reference.resolve();
+    assertNotNull(element);
+
+    String info = (new SoyDocumentationProvider()).getQuickNavigateInfo(element, null);
+    assertEquals(
+        "Defined at TemplateSignatureCallee.soy\n"
+            + "template signature.callee.moon kind=\"text\" stricthtml=\"false\""
+            + " visibility=\"private\"\n"
+            + "@param planet: string\n"
+            + "@param? phases: list&lt;string&gt;\n"
+            + "@param? size = ...\n\n"
+            + "Renders the moon.",
+        info);
+  }
 }
@@ -16,15 +16,19 @@ package com.google.bamboo.soy.insight;
 
 import com.google.bamboo.soy.SoyCodeInsightFixtureTestCase;
 import com.google.bamboo.soy.elements.CallStatementElement;
+import com.google.bamboo.soy.file.SoyFileType;
+import com.google.bamboo.soy.lang.TemplateNameUtils;
 import com.google.bamboo.soy.parser.SoyMsgStatement;
 import com.google.bamboo.soy.parser.SoyParamDefinitionIdentifier;
 import com.google.bamboo.soy.parser.SoyParamListElement;
 import com.google.bamboo.soy.parser.SoyTemplateDefinitionIdentifier;
+import com.google.bamboo.soy.parser.SoyTemplateReferenceIdentifier;
 import com.google.bamboo.soy.parser.SoyVariableDefinitionIdentifier;
 import com.google.bamboo.soy.parser.SoyVariableReferenceIdentifier;
 import com.google.common.collect.Iterables;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiReference;
+import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.usageView.UsageInfo;
 import java.util.Collection;
@@ -90,6 +94,48 @@ public class SoyReferenceTest extends SoyCodeInsightFixtureTestCase {
     assertEquals(".moon", ((SoyTemplateDefinitionIdentifier) id).getName());
   }
 
+  public void testTemplateAndParamReferencesAreReused() {
+    myFixture.configureByFiles("ReferenceSource.soy", "CompletionSourceTemplate.soy");
+    CallStatementElement element =
+        PsiTreeUtil.findChildOfType(myFixture.getFile(), CallStatementElement.class);
+    PsiElement templateIdentifier = element.getBeginCall().getTemplateReferenceIdentifier();
+    assertSame(templateIdentifier.getReference(), templateIdentifier.getReference());
+    PsiElement paramIdentifier =
+        PsiTreeUtil.findChildOfType(element, SoyParamListElement.class)
+            .getBeginParamTag()
+            .getParamSpecificationIdentifier();
+    assertSame(paramIdentifier.getReference(), paramIdentifier.getReference());
+
+    PsiElement template = templateIdentifier.getReference().resolve();
+    assertNotNull(template);
+    assertTrue(templateIdentifier.getReference().isReferenceTo(template));
+    assertEquals("planet", paramIdentifier.getReference().resolve().getText());
+  }
+
+  public void testTemplateReferencesAreIndexedByFullyQualifiedName() {
+    myFixture.configureByFiles("TemplateUsagesTarget.soy", "TemplateUsagesCaller.soy");
+    assertSize(
+        3,
+        TemplateNameUtils.findTemplateReferences(
+            getProject(), "target.space.moon", GlobalSearchScope.allScope(getProject())));
+    assertSize(
+        1,
+        TemplateNameUtils.findTemplateReferences(
+            getProject(), "other.space.moon", GlobalSearchScope.allScope(getProject())));
+  }
+
+  public void testFindTemplateUsages() {
+    myFixture.configureByFiles("TemplateUsagesTarget.soy", "TemplateUsagesCaller.soy");
+    SoyTemplateDefinitionIdentifier definition =
+        PsiTreeUtil.findChildOfType(myFixture.getFile(), SoyTemplateDefinitionIdentifier.class);
+    assertEquals(".moon", definition.getName());
+    Collection<UsageInfo> usages = myFixture.findUsages(definition);
+    assertSize(3, usages);
+    for (UsageInfo usage : usages) {
+      assertInstanceOf(usage.getElement(), SoyTemplateReferenceIdentifier.class);
+    }
+  }
+
   public void testParamReference() {
     myFixture.configureByFiles("ReferenceSource.soy", "CompletionSourceTemplate.soy");
     SoyParamListElement element =
@@ -1,6 +1,9 @@
 package com.google.bamboo.soy.insight.annotators;
 
 import com.google.bamboo.soy.SoyCodeInsightFixtureTestCase;
+import com.google.bamboo.soy.stubs.index.TemplateBlockIndex;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.impl.PsiManagerEx;
 
 public class GivenParametersAnnotatorTest extends SoyCodeInsightFixtureTestCase {
 
@@ -13,4 +16,15 @@ public class GivenParametersAnnotatorTest extends SoyCodeInsightFixtureTestCase
     myFixture.configureByFile("GivenParameters.soy");
     myFixture.checkHighlighting(false, false, true, false);
   }
+
+  public void testCalleeAstIsNotLoaded() {
+    VirtualFile callee = myFixture.copyFileToProject("GivenParametersCallee.soy");
+    // Make sure the callee is indexed before asserting on AST loading.
+    TemplateBlockIndex.INSTANCE.getAllKeys(getProject());
+    PsiManagerEx.getInstanceEx(getProject())
+        .setAssertOnFileLoadingFilter(callee::equals, getTestRootDisposable());
+
+    myFixture.configureByFile("GivenParametersStubOnly.soy");
+    myFixture.checkHighlighting(false, false, true, false);
+  }
 }
@@ -1,6 +1,11 @@
 package com.google.bamboo.soy.insight.annotators;
 
 import com.google.bamboo.soy.SoyCodeInsightFixtureTestCase;
+import com.google.bamboo.soy.file.SoyFileType;
+import com.google.bamboo.soy.lang.TemplateVariableUsages;
+import com.google.bamboo.soy.parser.SoyTemplateBlock;
+import com.intellij.lang.annotation.HighlightSeverity;
+import com.intellij.psi.util.PsiTreeUtil;
 
 public class UnusedParametersAnnotatorTest extends SoyCodeInsightFixtureTestCase {
 
@@ -13,4 +18,33 @@ public class UnusedParametersAnnotatorTest extends SoyCodeInsightFixtureTestCase
     myFixture.configureByFile("UnusedParameters.soy");
     myFixture.checkHighlighting(false, false, false, false);
   }
+
+  public void testUsagesInStringsDefaultsAndDataCalls() {
+    myFixture.configureByFile("UnusedParametersUsages.soy");
+    myFixture.checkHighlighting(false, false, true, false);
+  }
+
+  public void testLargeElementIsScannedOnce() {
+    StringBuilder file = new StringBuilder("{namespace large}\n{element .large}\n");
+    for (int i = 0; i < 100; i++) {
+      file.append("  {@param p").append(i).append(": string}\n");
+    }
+    for (int i = 0; i < 3000; i++) {
+      file.append("  <div title=\"{$p").append(i % 100).append("}\">{$p")
+          .append((i + 1) % 100).append("}</div>\n");
+    }
+    file.append("{/element}\n");
+    myFixture.configureByText(SoyFileType.INSTANCE, file.toString());
+    SoyTemplateBlock element =
+        PsiTreeUtil.findChildOfType(myFixture.getFile(), SoyTemplateBlock.class);
+    TemplateVariableUsages usages = TemplateVariableUsages.getUsages(element);
+
+    assertEmpty(myFixture.doHighlighting(HighlightSeverity.WEAK_WARNING));
+
+    // All 100 parameters were checked against the usages collected before highlighting.
+    assertSame(usages, TemplateVariableUsages.getUsages(element));
+    for (int i = 0; i < 100; i++) {
+      assertTrue(usages.isUsed("p" + i));
+    }
+  }
 }
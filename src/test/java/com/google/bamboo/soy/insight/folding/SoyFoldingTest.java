@@ -15,6 +15,14 @@
 package com.google.bamboo.soy.insight.folding;
 
 import com.google.bamboo.soy.SoyCodeInsightFixtureTestCase;
+import com.intellij.lang.folding.FoldingDescriptor;
+import com.intellij.openapi.editor.Document;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.impl.source.tree.LazyParseableElement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 public class SoyFoldingTest extends SoyCodeInsightFixtureTestCase {
   @Override
@@ -26,4 +34,33 @@ public class SoyFoldingTest extends SoyCodeInsightFixtureTestCase {
     myFixture.configureByFile("SoyFolding.soy");
     myFixture.testFolding(getTestDataPath() + "/SoyFolding.soy");
   }
+
+  public void testQuickFoldingOfUnparsedFile() {
+    PsiFile file =
+        myFixture.addFileToProject(
+            "quick.soy",
+            "{namespace quick}\n"
+                + "/**\n * Quick\n * folding.\n */\n"
+                + "{template .foo}\n"
+                + "  {call .bar}\n"
+                + "    {param baz: 'baz' /}\n"
+                + "  {/call}\n"
+                + "  {call .bar /}\n"
+                + "{/template}\n");
+    Document document = PsiDocumentManager.getInstance(getProject()).getDocument(file);
+
+    FoldingDescriptor[] descriptors =
+        new SoyFoldingBuilder().buildFoldRegions(file, document, true);
+
+    List<String> placeholders =
+        Arrays.stream(descriptors)
+            .map(FoldingDescriptor::getPlaceholderText)
+            .collect(Collectors.toList());
+    assertSameElements(
+        placeholders,
+        "/** Quick folding. */",
+        "{call .bar}...{/call}",
+        "{template .foo}...{/template}");
+    assertFalse(((LazyParseableElement) file.getNode()).isParsed());
+  }
 }
@@ -0,0 +1,114 @@
+package com.google.bamboo.soy.insight.inspections;
+
+import com.google.bamboo.soy.SoyCodeInsightFixtureTestCase;
+import com.google.bamboo.soy.file.SoyFileType;
+import com.google.common.collect.ImmutableList;
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.codeInspection.ex.GlobalInspectionToolWrapper;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class SoyValidationInspectionTest extends SoyCodeInsightFixtureTestCase {
+
+  @Override
+  protected String getBasePath() {
+    return "/insight/inspections";
+  }
+
+  private List<String> checkFile(String text) {
+    myFixture.configureByText(SoyFileType.INSTANCE, text);
+    return SoyValidationInspection.checkFile(
+            myFixture.getFile(), InspectionManager.getInstance(getProject()))
+        .stream()
+        .map(problem -> problem.getPsiElement().getText() + ": " + problem.getDescriptionTemplate())
+        .sorted()
+        .collect(Collectors.toList());
+  }
+
+  public void testReportsCallAndParameterProblems() {
+    List<String> problems =
+        checkFile(
+            "{namespace space}\n"
+                + "{template .callee}\n"
+                + "  {@param planet: string}\n"
+                + "  {@param moon: string}\n"
+                + "  {$planet}{$moon}\n"
+                + "{/template}\n"
+                + "{template .caller}\n"
+                + "  {@param unused: string}\n"
+                + "  {call .callee}\n"
+                + "    {param planet: 'Earth' /}\n"
+                + "    {param planet: 'Mars' /}\n"
+                + "    {param star: 'Sun' /}\n"
+                + "  {/call}\n"
+                + "  {call .missing /}\n"
+                + "  {call .missing data=\"all\" /}\n"
+                + "{/template}\n");
+
+    assertEquals(
+        ImmutableList.of(
+            ".callee: Missing required parameters: moon",
+            ".missing: Unknown template .missing",
+            "planet: Duplicate parameter specified",
+            "star: Unknown parameter specified",
+            "{@param unused: string}: Parameter unused is unused."),
+        problems);
+  }
+
+  public void testValidFileHasNoProblems() {
+    assertEmpty(
+        checkFile(
+            "{namespace space}\n"
+                + "{template .callee}\n"
+                + "  {@param planet: string}\n"
+                + "  {$planet}\n"
+                + "{/template}\n"
+                + "{template .caller}\n"
+                + "  {call .callee}{param planet: 'Earth' /}{/call}\n"
+                + "{/template}\n"));
+  }
+
+  public void testDelegatesWithoutImplementationAreNotReported() {
+    assertEmpty(
+        checkFile(
+            "{namespace space}\n"
+                + "{template .caller}\n"
+                + "  {delcall space.delegate /}\n"
+                + "  {delcall space.optional allowemptydefault=\"true\" /}\n"
+                + "{/template}\n"));
+  }
+
+  public void testUnusedElementVariablesAreWeakWarnings() {
+    myFixture.configureByText(
+        SoyFileType.INSTANCE,
+        "{namespace space}\n"
+            + "{element .widget}\n"
+            + "  {@param unused: string}\n"
+            + "  {@state open: bool = false}\n"
+            + "{/element}\n"
+            + "{template .template}\n"
+            + "  {@param unused: string}\n"
+            + "{/template}\n");
+    List<ProblemHighlightType> highlightTypes =
+        SoyValidationInspection.checkFile(
+                myFixture.getFile(), InspectionManager.getInstance(getProject()))
+            .stream()
+            .map(ProblemDescriptor::getHighlightType)
+            .collect(Collectors.toList());
+
+    assertEquals(
+        ImmutableList.of(
+            ProblemHighlightType.WEAK_WARNING,
+            ProblemHighlightType.WEAK_WARNING,
+            ProblemHighlightType.LIKE_UNUSED_SYMBOL),
+        highlightTypes);
+  }
+
+  public void testGlobalInspection() {
+    // Runs the tool over the "src" folder and compares the problems with "expected.xml".
+    myFixture.testInspection(
+        "validation", new GlobalInspectionToolWrapper(new SoyValidationInspection()));
+  }
+}
@@ -0,0 +1,85 @@
+package com.google.bamboo.soy.insight.navigation;
+
+import com.google.bamboo.soy.SoyCodeInsightFixtureTestCase;
+import com.google.bamboo.soy.parser.SoyNamespaceDeclarationIdentifier;
+import com.google.bamboo.soy.parser.SoyTemplateBlock;
+import com.intellij.navigation.ChooseByNameContributorEx;
+import com.intellij.navigation.NavigationItem;
+import com.intellij.openapi.vfs.VirtualFileFilter;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.impl.PsiManagerEx;
+import com.intellij.psi.impl.source.PsiFileImpl;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.CommonProcessors;
+import com.intellij.util.indexing.FindSymbolParameters;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SoyGotoContributorTest extends SoyCodeInsightFixtureTestCase {
+
+  private static final String FILE =
+      "{namespace outer.space}\n"
+          + "{template .moon}{/template}\n"
+          + "{element .mars}{/element}\n"
+          + "{deltemplate outer.delegate}{/deltemplate}\n";
+
+  private List<String> getNames(ChooseByNameContributorEx contributor) {
+    List<String> names = new ArrayList<>();
+    contributor.processNames(
+        new CommonProcessors.CollectProcessor<>(names),
+        GlobalSearchScope.projectScope(getProject()),
+        null);
+    return names;
+  }
+
+  private List<NavigationItem> getItems(ChooseByNameContributorEx contributor, String name) {
+    List<NavigationItem> items = new ArrayList<>();
+    contributor.processElementsWithName(
+        name,
+        new CommonProcessors.CollectProcessor<>(items),
+        FindSymbolParameters.wrap(name, getProject(), false));
+    return items;
+  }
+
+  public void testSymbolsAreTemplates() {
+    PsiFile file = myFixture.addFileToProject("space.soy", FILE);
+    SoyGotoSymbolContributor contributor = new SoyGotoSymbolContributor();
+
+    assertSameElements(
+        getNames(contributor), "outer.space.moon", "outer.space.mars", "outer.delegate");
+    List<NavigationItem> items = getItems(contributor, "outer.space.mars");
+    assertSize(1, items);
+    assertInstanceOf(items.get(0), SoyTemplateBlock.class);
+    assertFalse(((PsiFileImpl) file).isContentsLoaded());
+  }
+
+  public void testClassesAreNamespaces() {
+    PsiFile file = myFixture.addFileToProject("space.soy", FILE);
+    myFixture.addFileToProject("other.soy", "{namespace other}\n");
+    SoyGotoClassContributor contributor = new SoyGotoClassContributor();
+
+    assertSameElements(getNames(contributor), "outer.space", "other");
+    List<NavigationItem> items = getItems(contributor, "outer.space");
+    assertSize(1, items);
+    assertInstanceOf(items.get(0), SoyNamespaceDeclarationIdentifier.class);
+    assertEquals(file, ((SoyNamespaceDeclarationIdentifier) items.get(0)).getContainingFile());
+    assertFalse(((PsiFileImpl) file).isContentsLoaded());
+  }
+
+  public void testSymbolNamesLoadNoFiles() {
+    for (int i = 0; i < 20; i++) {
+      StringBuilder text = new StringBuilder("{namespace generated.file" + i + "}\n");
+      for (int j = 0; j < 1000; j++) {
+        text.append("{template .template").append(j).append("}{/template}\n");
+      }
+      myFixture.addFileToProject("file" + i + ".soy", text.toString());
+    }
+    SoyGotoSymbolContributor contributor = new SoyGotoSymbolContributor();
+    assertSize(20000, getNames(contributor));
+    PsiManagerEx.getInstanceEx(getProject())
+        .setAssertOnFileLoadingFilter(VirtualFileFilter.ALL, getTestRootDisposable());
+
+    // Names are served from the index keys alone.
+    assertSize(20000, getNames(contributor));
+  }
+}
@@ -0,0 +1,112 @@
+package com.google.bamboo.soy.insight.structure;
+
+import com.google.bamboo.soy.SoyCodeInsightFixtureTestCase;
+import com.google.bamboo.soy.file.SoyFile;
+import com.intellij.ide.structureView.StructureViewTreeElement;
+import com.intellij.ide.util.treeView.smartTree.SmartTreeStructure;
+import com.intellij.ide.util.treeView.smartTree.TreeElement;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VirtualFileFilter;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.impl.PsiManagerEx;
+import com.intellij.psi.impl.source.PsiFileImpl;
+import com.intellij.ui.treeStructure.filtered.FilteringTreeStructure;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class SoyStructureViewTest extends SoyCodeInsightFixtureTestCase {
+
+  private static final String FILE =
+      "{namespace structure}\n"
+          + "{template .first}\n"
+          + "  {@param planet: string}\n"
+          + "  {let $moon: $planet /}\n"
+          + "  {$moon}\n"
+          + "{/template}\n"
+          + "{element .second}\n"
+          + "  {@state open: bool = false}\n"
+          + "  {msg desc=\"Greeting\"}Hello{/msg}\n"
+          + "{/element}\n"
+          + "{deltemplate structure.third}{/deltemplate}\n";
+
+  private static List<String> describe(TreeElement[] elements) {
+    return Arrays.stream(elements)
+        .map((element) -> element.getPresentation().getPresentableText())
+        .collect(Collectors.toList());
+  }
+
+  private SoyStructureViewModel createModel(PsiFile file) {
+    SoyStructureViewModel model = new SoyStructureViewModel((SoyFile) file, null);
+    Disposer.register(getTestRootDisposable(), model);
+    return model;
+  }
+
+  public void testTopLevelIsReadFromStubs() {
+    PsiFile file = myFixture.addFileToProject("structure.soy", FILE);
+    SoyStructureViewModel model = createModel(file);
+
+    TreeElement[] templates = model.getRoot().getChildren();
+    assertOrderedEquals(
+        describe(templates),
+        "namespace",
+        "template .first",
+        "element .second",
+        "deltemplate structure.third");
+    assertTrue(model.isAlwaysShowsPlus((StructureViewTreeElement) templates[1]));
+    assertFalse(((PsiFileImpl) file).isContentsLoaded());
+
+    // Only the declarations are shown until the file is parsed.
+    assertOrderedEquals(describe(templates[1].getChildren()), "@param planet: string");
+    assertFalse(((PsiFileImpl) file).isContentsLoaded());
+
+    ((PsiFileImpl) file).getNode();
+    TreeElement parsedTemplate = createModel(file).getRoot().getChildren()[1];
+    List<String> firstChildren = describe(parsedTemplate.getChildren());
+    assertSize(2, firstChildren);
+    assertEquals("@param planet: string", firstChildren.get(0));
+  }
+
+  public void testFileStructurePopupTreeLoadsNoContents() {
+    PsiFile file = myFixture.addFileToProject("structure.soy", FILE);
+    PsiManagerEx.getInstanceEx(getProject())
+        .setAssertOnFileLoadingFilter(VirtualFileFilter.ALL, getTestRootDisposable());
+
+    // Like the File Structure popup, which fetches the children of every node up front.
+    FilteringTreeStructure structure =
+        new FilteringTreeStructure(
+            (value) -> true, new SmartTreeStructure(getProject(), createModel(file)), false);
+    structure.rebuild();
+
+    assertSize(4, structure.getChildElements(structure.getRootElement()));
+    assertFalse(((PsiFileImpl) file).isContentsLoaded());
+  }
+
+  public void testChildrenOfParsedFile() {
+    myFixture.configureByText("structure.soy", FILE);
+    TreeElement[] templates = createModel(myFixture.getFile()).getRoot().getChildren();
+
+    assertSize(4, templates);
+    List<String> secondChildren = describe(templates[2].getChildren());
+    assertSize(2, secondChildren);
+    assertEquals("@state open: bool = false", secondChildren.get(0));
+    assertEmpty(templates[3].getChildren());
+  }
+
+  public void testTopLevelOfLargeFileLoadsNoContents() {
+    StringBuilder text = new StringBuilder("{namespace large}\n");
+    for (int i = 0; i < 3000; i++) {
+      text.append("{template .template").append(i).append("}\n")
+          .append("  {@param planet: string}\n")
+          .append("  {let $moon: $planet /}\n")
+          .append("  {if $moon}{$moon}{/if}\n")
+          .append("{/template}\n");
+    }
+    PsiFile file = myFixture.addFileToProject("large.soy", text.toString());
+    PsiManagerEx.getInstanceEx(getProject())
+        .setAssertOnFileLoadingFilter(VirtualFileFilter.ALL, getTestRootDisposable());
+
+    assertSize(3001, createModel(file).getRoot().getChildren());
+    assertFalse(((PsiFileImpl) file).isContentsLoaded());
+  }
+}
@@ -0,0 +1,122 @@
+package com.google.bamboo.soy.lang;
+
+import com.google.bamboo.soy.SoyCodeInsightFixtureTestCase;
+import com.google.bamboo.soy.elements.CallStatementElement;
+import com.google.bamboo.soy.file.SoyFileType;
+import com.google.bamboo.soy.lang.SoyFileModel.CallSite;
+import com.google.bamboo.soy.lang.SoyFileModel.TemplateInfo;
+import com.intellij.lang.annotation.HighlightSeverity;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class SoyFileModelTest extends SoyCodeInsightFixtureTestCase {
+
+  private static final String FILE =
+      "{namespace model}\n"
+          + "{template .callee}\n"
+          + "  {@param planet: string}\n"
+          + "  {$planet}\n"
+          + "{/template}\n"
+          + "{element .caller}\n"
+          + "  {@state moon: string = ''}\n"
+          + "  {call .callee}{param planet: $moon /}{/call}\n"
+          + "  {call .unknown data=\"all\" /}\n"
+          + "{/element}\n";
+
+  public void testCollectsTemplatesAndCallSites() {
+    myFixture.configureByText(SoyFileType.INSTANCE, FILE);
+    SoyFileModel model = SoyFileModel.getModel(myFixture.getFile());
+
+    List<TemplateInfo> templates = model.getTemplates().stream().collect(Collectors.toList());
+    assertSize(2, templates);
+    assertEquals(".callee", templates.get(0).block.getName());
+    assertFalse(templates.get(0).isElementBlock);
+    assertEquals("planet", templates.get(0).parameters.get(0).name);
+    assertTrue(templates.get(1).isElementBlock);
+    assertEquals("moon", templates.get(1).stateVariables.get(0).name);
+
+    List<CallStatementElement> statements =
+        PsiTreeUtil.findChildrenOfType(myFixture.getFile(), CallStatementElement.class).stream()
+            .collect(Collectors.toList());
+    CallSite known = SoyFileModel.getCallSite(statements.get(0));
+    assertNotNull(known);
+    assertNotNull(known.target);
+    assertSame(templates.get(0).block, known.target.block);
+    assertSameElements(known.target.requiredParameterNames, "planet");
+    assertFalse(known.passesData);
+    assertSize(1, known.givenParameters);
+
+    CallSite unknown = SoyFileModel.getCallSite(statements.get(1));
+    assertNotNull(unknown);
+    assertNull(unknown.target);
+    assertTrue(unknown.passesData);
+  }
+
+  public void testRepeatedCalleesAreResolvedOnce() {
+    myFixture.addFileToProject(
+        "callee.soy",
+        "{namespace other}\n{template .callee}{@param planet: string}{$planet}{/template}\n");
+    myFixture.configureByText(
+        SoyFileType.INSTANCE,
+        "{namespace model}\n"
+            + "{template .caller}\n"
+            + "  {call other.callee}{param planet: '1' /}{/call}\n"
+            + "  {call other.callee}{param planet: '2' /}{/call}\n"
+            + "{/template}\n");
+
+    List<CallSite> callSites =
+        SoyFileModel.getModel(myFixture.getFile()).getCallSites().stream()
+            .collect(Collectors.toList());
+    assertSize(2, callSites);
+    assertNotNull(callSites.get(0).target);
+    assertSame(callSites.get(0).target, callSites.get(1).target);
+  }
+
+  public void testModelIsRebuiltAfterModification() {
+    myFixture.configureByText(SoyFileType.INSTANCE, FILE);
+    SoyFileModel model = SoyFileModel.getModel(myFixture.getFile());
+    assertSame(model, SoyFileModel.getModel(myFixture.getFile()));
+
+    WriteCommandAction.runWriteCommandAction(
+        getProject(),
+        () ->
+            myFixture
+                .getEditor()
+                .getDocument()
+                .insertString(0, "{template .first}{/template}\n"));
+    PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+
+    SoyFileModel rebuilt = SoyFileModel.getModel(myFixture.getFile());
+    assertNotSame(model, rebuilt);
+    assertSize(3, rebuilt.getTemplates());
+  }
+
+  public void testHighlightingSharesOneModel() {
+    StringBuilder file = new StringBuilder("{namespace large}\n");
+    for (int i = 0; i < 300; i++) {
+      file.append("{template .template").append(i).append("}\n")
+          .append("  {@param planet: string}\n")
+          .append("  {@param? moon: string}\n")
+          .append("  {$planet}{$moon}\n");
+      if (i > 0) {
+        file.append("  {call .template").append(i - 1).append("}\n")
+            .append("    {param planet: $planet /}\n")
+            .append("    {param moon: $moon /}\n")
+            .append("  {/call}\n");
+      }
+      file.append("{/template}\n");
+    }
+    myFixture.configureByText(SoyFileType.INSTANCE, file.toString());
+    SoyFileModel model = SoyFileModel.getModel(myFixture.getFile());
+
+    assertEmpty(myFixture.doHighlighting(HighlightSeverity.ERROR));
+
+    // The annotators read from the model built before highlighting instead of their own.
+    assertSame(model, SoyFileModel.getModel(myFixture.getFile()));
+    assertSize(300, model.getTemplates());
+    assertSize(299, model.getCallSites());
+  }
+}
@@ -0,0 +1,39 @@
+package com.google.bamboo.soy.lang;
+
+import com.google.bamboo.soy.SoyCodeInsightFixtureTestCase;
+import com.google.bamboo.soy.file.SoyFileType;
+import com.google.bamboo.soy.parser.SoyTemplateBlock;
+import com.google.bamboo.soy.parser.SoyVariableReferenceIdentifier;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.PsiTreeUtil;
+import java.util.Collection;
+
+public class SymbolTableTest extends SoyCodeInsightFixtureTestCase {
+
+  public void testResolveVariablesInLargeTemplateReusesSymbolTable() {
+    StringBuilder text = new StringBuilder("{namespace large}\n{template .large}\n");
+    text.append("  {@param v0: string}\n");
+    for (int i = 1; i < 2000; i++) {
+      text.append("  {let $v").append(i).append(": $v").append(i - 1).append(" /}\n");
+    }
+    text.append("{/template}\n");
+    myFixture.configureByText(SoyFileType.INSTANCE, text.toString());
+    SoyTemplateBlock template =
+        PsiTreeUtil.findChildOfType(myFixture.getFile(), SoyTemplateBlock.class);
+    SymbolTable table = SymbolTable.getSymbolTable(template);
+
+    Collection<SoyVariableReferenceIdentifier> references =
+        PsiTreeUtil.findChildrenOfType(myFixture.getFile(), SoyVariableReferenceIdentifier.class);
+    assertSize(1999, references);
+    for (SoyVariableReferenceIdentifier reference : references) {
+      PsiElement definition = reference.getReference().resolve();
+      assertNotNull(definition);
+      assertEquals(
+          StringUtil.trimStart(reference.getText(), "$"),
+          StringUtil.trimStart(definition.getText(), "$"));
+    }
+    // Every reference was looked up in the same cached table.
+    assertSame(table, SymbolTable.getSymbolTable(template));
+  }
+}
@@ -0,0 +1,339 @@
+package com.google.bamboo.soy.lang;
+
+import com.google.bamboo.soy.SoyCodeInsightFixtureTestCase;
+import com.google.bamboo.soy.file.SoyFile;
+import com.google.bamboo.soy.file.SoyFileType;
+import com.google.bamboo.soy.parser.SoyTemplateReferenceIdentifier;
+import com.google.bamboo.soy.stubs.index.TemplateBlockIndex;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileFilter;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.impl.PsiManagerEx;
+import com.intellij.psi.impl.source.PsiFileImpl;
+import com.intellij.psi.util.PsiTreeUtil;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class TemplateNameUtilsTest extends SoyCodeInsightFixtureTestCase {
+
+  private static final String LOCAL_TEMPLATES =
+      "{namespace local}\n"
+          + "{template .first}{/template}\n"
+          + "{element .second}{/element}\n"
+          + "{deltemplate local.delegate}{/deltemplate}\n";
+
+  private int generatedFileCount = 0;
+
+  private static String generateTemplates(String namespace, int count) {
+    StringBuilder builder = new StringBuilder("{namespace " + namespace + "}\n");
+    for (int i = 0; i < count; i++) {
+      builder.append("{template .template").append(i).append("}{/template}\n");
+    }
+    return builder.toString();
+  }
+
+  private void addTemplates(int files, int templatesPerFile) {
+    for (int i = 0; i < files; i++) {
+      String namespace = "generated.file" + generatedFileCount++;
+      myFixture.addFileToProject(
+          namespace + ".soy", generateTemplates(namespace, templatesPerFile));
+    }
+    // Index the new files outside of the measured runs.
+    TemplateBlockIndex.INSTANCE.getAllKeys(getProject());
+  }
+
+  private static List<String> describe(Collection<TemplateNameUtils.Fragment> fragments) {
+    return fragments
+        .stream()
+        .map((fragment) -> fragment.text + (fragment.isFinalFragment ? "" : "."))
+        .collect(Collectors.toList());
+  }
+
+  public void testNamespaceFragments() {
+    myFixture.addFileToProject("a.soy", "{namespace outer.space}");
+    myFixture.addFileToProject("b.soy", "{namespace outer.spaceship}");
+    myFixture.addFileToProject("c.soy", "{namespace other}");
+    assertSameElements(
+        describe(TemplateNameUtils.getTemplateNamespaceFragments(getProject(), "ou")), "outer.");
+    assertSameElements(
+        describe(TemplateNameUtils.getTemplateNamespaceFragments(getProject(), "outer.sp")),
+        "outer.space",
+        "outer.spaceship");
+    assertEmpty(TemplateNameUtils.getTemplateNamespaceFragments(getProject(), "outer.x"));
+  }
+
+  public void testNextIdentifierFragments() {
+    myFixture.addFileToProject(
+        "space.soy",
+        "{namespace outer.space}\n"
+            + "{template .moon}{/template}\n"
+            + "{template .mars}{/template}\n"
+            + "{template .moose_ visibility=\"private\"}{/template}\n"
+            + "{template .mountain visibility=\"private\"}{/template}\n"
+            + "{template .meteor_}{/template}\n"
+            + "{deltemplate outer.space.delegate}{/deltemplate}\n");
+    myFixture.configureByText(
+        SoyFileType.INSTANCE,
+        "{namespace local}\n{alias outer.space as sp}\n{template .lunar}{/template}\n");
+
+    assertSameElements(
+        describe(
+            TemplateNameUtils.getPossibleNextIdentifierFragments(
+                getProject(), myFixture.getFile(), "outer.space.m", false)),
+        "outer.space.moon",
+        "outer.space.mars",
+        "outer.space.meteor_");
+    assertSameElements(
+        describe(
+            TemplateNameUtils.getPossibleNextIdentifierFragments(
+                getProject(), myFixture.getFile(), "sp.mo", false)),
+        "sp.moon");
+    assertSameElements(
+        describe(
+            TemplateNameUtils.getPossibleNextIdentifierFragments(
+                getProject(), myFixture.getFile(), "s", false)),
+        "sp.");
+    assertEmpty(
+        TemplateNameUtils.getPossibleNextIdentifierFragments(
+            getProject(), myFixture.getFile(), "local.", false));
+    assertSameElements(
+        describe(
+            TemplateNameUtils.getPossibleNextIdentifierFragments(
+                getProject(), myFixture.getFile(), "outer.", true)),
+        "outer.space.");
+  }
+
+  public void testProcessNextIdentifierFragmentsStopsEarly() {
+    myFixture.addFileToProject("space.soy", generateTemplates("outer.space", 10));
+    myFixture.configureByText(
+        SoyFileType.INSTANCE, "{namespace local}\n{alias outer.space as sp}\n");
+
+    List<TemplateNameUtils.Fragment> fragments = new ArrayList<>();
+    TemplateNameUtils.processPossibleNextIdentifierFragments(
+        getProject(),
+        myFixture.getFile(),
+        "outer.space.template",
+        false,
+        (fragment) -> {
+          fragments.add(fragment);
+          return fragments.size() < 3;
+        });
+    assertOrderedEquals(
+        describe(fragments),
+        "outer.space.template0",
+        "outer.space.template1",
+        "outer.space.template2");
+  }
+
+  public void testCachedNextIdentifierFragmentsFollowChanges() {
+    myFixture.addFileToProject(
+        "space.soy",
+        "{namespace outer.space}\n{template .moon}{/template}\n{template .mars}{/template}\n");
+    myFixture.configureByText(
+        SoyFileType.INSTANCE, "{namespace local}\n{alias outer.space as sp}\n");
+    PsiFile file = myFixture.getFile();
+
+    assertSameElements(
+        describe(
+            TemplateNameUtils.getPossibleNextIdentifierFragments(
+                getProject(), file, "sp.", false)),
+        "sp.moon",
+        "sp.mars");
+    assertSameElements(
+        describe(
+            TemplateNameUtils.getPossibleNextIdentifierFragments(
+                getProject(), file, "sp.m", false)),
+        "sp.moon",
+        "sp.mars");
+    assertSameElements(
+        describe(
+            TemplateNameUtils.getPossibleNextIdentifierFragments(
+                getProject(), file, "sp.mo", false)),
+        "sp.moon");
+
+    myFixture.addFileToProject(
+        "more.soy", "{namespace outer.space}\n{template .moonlight}{/template}\n");
+    assertSameElements(
+        describe(
+            TemplateNameUtils.getPossibleNextIdentifierFragments(
+                getProject(), file, "sp.mo", false)),
+        "sp.moon",
+        "sp.moonlight");
+
+    PsiFile otherFile =
+        myFixture.addFileToProject("other.soy", "{namespace other}\n{alias outer.space}\n");
+    assertSameElements(
+        describe(
+            TemplateNameUtils.getPossibleNextIdentifierFragments(
+                getProject(), otherFile, "space.mo", false)),
+        "space.moon",
+        "space.moonlight");
+  }
+
+  private static List<String> processCached(
+      NextFragmentCache cache,
+      long stamp,
+      String identifier,
+      int limit,
+      NextFragmentCache.Walker walker) {
+    List<TemplateNameUtils.Fragment> fragments = new ArrayList<>();
+    cache.processFragments(
+        stamp,
+        Collections.emptyMap(),
+        false,
+        Collections.emptySet(),
+        "sp.",
+        identifier,
+        walker,
+        (fragment) -> fragments.add(fragment) && fragments.size() < limit);
+    return describe(fragments);
+  }
+
+  public void testNextFragmentCacheNarrowsCompleteWalks() {
+    NextFragmentCache cache = new NextFragmentCache();
+    List<String> walks = new ArrayList<>();
+    NextFragmentCache.Walker walker =
+        (processor) -> {
+          walks.add("walk");
+          for (String text : new String[] {"sp.mars", "sp.moon", "sp.moonlight"}) {
+            if (!processor.process(new TemplateNameUtils.Fragment(text, true))) {
+              return false;
+            }
+          }
+          return true;
+        };
+
+    // A walk stopped by the processor is not cached.
+    assertOrderedEquals(processCached(cache, 1, "sp.mo", 1, walker), "sp.moon");
+    assertOrderedEquals(
+        processCached(cache, 1, "sp.", 10, walker), "sp.mars", "sp.moon", "sp.moonlight");
+    assertSize(2, walks);
+
+    assertOrderedEquals(processCached(cache, 1, "sp.mo", 10, walker), "sp.moon", "sp.moonlight");
+    assertOrderedEquals(processCached(cache, 1, "sp.moonl", 10, walker), "sp.moonlight");
+    assertSize(2, walks);
+
+    // A new index stamp walks again.
+    assertOrderedEquals(processCached(cache, 2, "sp.mo", 10, walker), "sp.moon", "sp.moonlight");
+    assertSize(3, walks);
+  }
+
+  public void testFirstNextFragmentsStopWithTheProcessor() {
+    QualifiedNameTrie trie = new QualifiedNameTrie();
+    for (int i = 0; i < 20000; i++) {
+      trie.add("large.space.template" + i);
+    }
+    List<String> filteredNames = new ArrayList<>();
+    List<TemplateNameUtils.Fragment> fragments = new ArrayList<>();
+
+    assertFalse(
+        trie.processNextFragments(
+            "large.space.template",
+            (name) -> filteredNames.add(name),
+            (fragment) -> fragments.add(fragment) && fragments.size() < 50));
+
+    // Only the names of the fragments handed to the processor were visited.
+    assertSize(50, fragments);
+    assertSize(50, filteredNames);
+  }
+
+  public void testNameTrieFollowsIndexChanges() {
+    myFixture.addFileToProject("first.soy", "{namespace first}");
+    assertSameElements(
+        describe(TemplateNameUtils.getTemplateNamespaceFragments(getProject(), "")), "first");
+
+    myFixture.addFileToProject("second.soy", "{namespace second}");
+    assertSameElements(
+        describe(TemplateNameUtils.getTemplateNamespaceFragments(getProject(), "")),
+        "first",
+        "second");
+  }
+
+  public void testNameTrieSurvivesEditsOfTemplateBodies() {
+    myFixture.configureByText(
+        SoyFileType.INSTANCE, "{namespace first}\n{template .moon}<caret>{/template}\n");
+    QualifiedNameTrie trie = TemplateNameUtils.getNamespaceNameTrie(getProject());
+
+    myFixture.type("{$planet}");
+    PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+    assertSame(trie, TemplateNameUtils.getNamespaceNameTrie(getProject()));
+
+    myFixture.addFileToProject("second.soy", "{namespace second}");
+    assertNotSame(trie, TemplateNameUtils.getNamespaceNameTrie(getProject()));
+  }
+
+  public void testFindLocalTemplateNamesFromPsi() {
+    myFixture.configureByText(SoyFileType.INSTANCE, LOCAL_TEMPLATES);
+    addTemplates(1, 10);
+    assertSameElements(
+        TemplateNameUtils.findLocalTemplateNames(myFixture.getFile()), ".first", ".second");
+  }
+
+  public void testFindLocalTemplateNamesFromStubs() {
+    PsiFile file = myFixture.addFileToProject("local.soy", LOCAL_TEMPLATES);
+    addTemplates(1, 10);
+    assertSameElements(TemplateNameUtils.findLocalTemplateNames(file), ".first", ".second");
+  }
+
+  public void testFindLocalTemplateNamesLoadsNoFiles() {
+    PsiFile file = myFixture.addFileToProject("local.soy", generateTemplates("local", 20));
+    addTemplates(20, 1000);
+    PsiManagerEx.getInstanceEx(getProject())
+        .setAssertOnFileLoadingFilter(VirtualFileFilter.ALL, getTestRootDisposable());
+
+    // Only the stub of the file itself is read, whatever the number of project templates.
+    assertSize(20, TemplateNameUtils.findLocalTemplateNames(file));
+    assertFalse(((PsiFileImpl) file).isContentsLoaded());
+  }
+
+  public void testAliasMapperIsCachedPerFile() {
+    myFixture.configureByText(
+        SoyFileType.INSTANCE,
+        "{namespace local}\n{alias outer.space as sp}\n{alias inner.sp}\n");
+    SoyFile file = (SoyFile) myFixture.getFile();
+    AliasMapper mapper = file.getAliasMapper();
+    assertSame(mapper, file.getAliasMapper());
+    assertEquals("outer.space.sp.moon", mapper.normalizeIdentifier("sp.sp.moon"));
+    assertEquals("local.moon", TemplateNameUtils.normalizeTemplateName(file, ".moon"));
+    assertEquals("other.moon", mapper.normalizeIdentifier("other.moon"));
+  }
+
+  public void testResolveCallsThroughAliasesReusesAliasMapper() {
+    StringBuilder caller = new StringBuilder("{namespace caller}\n");
+    for (int i = 0; i < 20; i++) {
+      myFixture.addFileToProject("callee" + i + ".soy", generateTemplates("callee.ns" + i, 15));
+      caller.append("{alias callee.ns").append(i).append(" as alias").append(i).append("}\n");
+    }
+    caller.append("{template .caller}\n");
+    for (int i = 0; i < 300; i++) {
+      caller
+          .append("  {call alias")
+          .append(i % 20)
+          .append(".template")
+          .append(i % 15)
+          .append(" /}\n");
+    }
+    caller.append("{/template}\n");
+    myFixture.configureByText(SoyFileType.INSTANCE, caller.toString());
+    addTemplates(20, 100);
+    SoyFile file = (SoyFile) myFixture.getFile();
+    AliasMapper mapper = file.getAliasMapper();
+    VirtualFile callerFile = file.getVirtualFile();
+    PsiManagerEx.getInstanceEx(getProject())
+        .setAssertOnFileLoadingFilter(
+            (virtualFile) -> !virtualFile.equals(callerFile), getTestRootDisposable());
+
+    Collection<SoyTemplateReferenceIdentifier> calls =
+        PsiTreeUtil.findChildrenOfType(file, SoyTemplateReferenceIdentifier.class);
+    assertSize(300, calls);
+    for (SoyTemplateReferenceIdentifier call : calls) {
+      assertNotNull(call.getReference().resolve());
+    }
+    // All calls were normalized by the same mapper, and the callees were resolved from stubs.
+    assertSame(mapper, file.getAliasMapper());
+  }
+}
@@ -0,0 +1,148 @@
+package com.google.bamboo.soy.lexer;
+
+import com.google.bamboo.soy.parser.SoyTypes;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.tree.IElementType;
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.TestCase;
+
+public class SoyHighlightingLexerTest extends TestCase {
+
+  private static final String FILE =
+      "{namespace highlighting}\n"
+          + "\n"
+          + "/** Doc. */\n"
+          + "{template .planet}\n"
+          + "  {@param name: string} // The name.\n"
+          + "  <div class=\"planet\">\n"
+          + "    <a href=\"http://example.com\">{$name}</a>\n"
+          + "    {if $name}\n"
+          + "      {for $i in range(3)}{if $i > 1}{$i}{/if}{/for}\n"
+          + "    {/if}\n"
+          + "    {literal}{not a tag}{/literal}\n"
+          + "  </div>\n"
+          + "{/template}\n";
+
+  private static class Token {
+    final int start;
+    final int end;
+    final IElementType type;
+    final int state;
+
+    Token(SoyHighlightingLexer lexer) {
+      start = lexer.getTokenStart();
+      end = lexer.getTokenEnd();
+      type = lexer.getTokenType();
+      state = lexer.getState();
+    }
+
+    @Override
+    public String toString() {
+      return type + "[" + start + "," + end + "]@" + state;
+    }
+  }
+
+  private static List<String> lex(String text, int start, int state) {
+    List<String> tokens = new ArrayList<>();
+    for (Token token : lexTokens(text, start, state)) {
+      tokens.add(token.toString());
+    }
+    return tokens;
+  }
+
+  private static List<Token> lexTokens(String text, int start, int state) {
+    SoyHighlightingLexer lexer = new SoyHighlightingLexer();
+    lexer.start(text, start, text.length(), state);
+    List<Token> tokens = new ArrayList<>();
+    while (lexer.getTokenType() != null) {
+      tokens.add(new Token(lexer));
+      lexer.advance();
+    }
+    return tokens;
+  }
+
+  private static void assertRestartable(String text) {
+    List<Token> tokens = lexTokens(text, 0, new SoyHighlightingLexer().getStartState());
+    List<String> expected = lex(text, 0, 0);
+    for (int i = 0; i < tokens.size(); i++) {
+      Token token = tokens.get(i);
+      if (new SoyHighlightingLexer().isRestartableState(token.state)) {
+        assertEquals(
+            "Restarted at " + token,
+            expected.subList(i, expected.size()),
+            lex(text, token.start, token.state));
+      }
+    }
+  }
+
+  public void testRestartAtAnyToken() {
+    assertRestartable(FILE);
+  }
+
+  public void testTemplateDataIsCutAtLineEnds() {
+    for (Token token : lexTokens(FILE, 0, 0)) {
+      if (token.type == SoyTypes.OTHER) {
+        String text = FILE.substring(token.start, token.end);
+        assertFalse(text, StringUtil.trimEnd(text, "\n").contains("\n"));
+      }
+    }
+  }
+
+  public void testLongLinesAreCut() {
+    String file =
+        "{template .long}\n" + StringUtil.repeat("<b>x</b>", 1000) + "\n{/template}\n";
+    for (Token token : lexTokens(file, 0, 0)) {
+      assertTrue(
+          token.toString(),
+          token.end - token.start <= SoyHighlightingLexer.MAX_MERGED_TOKEN_LENGTH + 2);
+    }
+    assertRestartable(file);
+  }
+
+  public void testManyTagsKeepRestartPoints() {
+    StringBuilder file = new StringBuilder("{namespace many}\n{template .many}\n");
+    for (int i = 0; i < 50; i++) {
+      file.append("  {@param p").append(i).append(": string}\n");
+    }
+    for (int i = 0; i < 50; i++) {
+      file.append("  {if $p").append(i).append("}<b>{$p").append(i).append("}</b>{/if}\n");
+    }
+    file.append("{/template}\n");
+
+    SoyHighlightingLexer lexer = new SoyHighlightingLexer();
+    for (Token token : lexTokens(file.toString(), 0, 0)) {
+      assertTrue(token.toString(), lexer.isRestartableState(token.state));
+    }
+    assertRestartable(file.toString());
+  }
+
+  public void testDeepNestingKeepsRestartPoints() {
+    StringBuilder file = new StringBuilder("{template .deep}\n");
+    for (int i = 0; i < 10; i++) {
+      file.append("{if $a}\n");
+    }
+    file.append("<b>deep</b>\n");
+    for (int i = 0; i < 10; i++) {
+      file.append("{/if}\n");
+    }
+    file.append("{/template}\n");
+
+    SoyHighlightingLexer lexer = new SoyHighlightingLexer();
+    for (Token token : lexTokens(file.toString(), 0, 0)) {
+      assertTrue(token.toString(), lexer.isRestartableState(token.state));
+    }
+    assertRestartable(file.toString());
+  }
+
+  public void testUnterminatedTagsAreNotRestartable() {
+    String file = "{template .broken}\n" + StringUtil.repeat("{if ", 10) + "\n{/template}\n";
+
+    boolean foundOverflow = false;
+    for (Token token : lexTokens(file, 0, 0)) {
+      foundOverflow |= !new SoyHighlightingLexer().isRestartableState(token.state);
+    }
+    assertTrue(foundOverflow);
+    assertRestartable(file);
+  }
+}
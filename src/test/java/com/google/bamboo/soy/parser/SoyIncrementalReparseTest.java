@@ -0,0 +1,84 @@
+package com.google.bamboo.soy.parser;
+
+import com.google.bamboo.soy.SoyCodeInsightFixtureTestCase;
+import com.google.bamboo.soy.file.SoyFileType;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.testFramework.PsiTestUtil;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SoyIncrementalReparseTest extends SoyCodeInsightFixtureTestCase {
+
+  private static String generateFile(int templates, int statementsPerTemplate) {
+    StringBuilder builder = new StringBuilder("{namespace reparse}\n\n");
+    for (int i = 0; i < templates; i++) {
+      builder.append("{template .template").append(i).append("}\n");
+      builder.append("  {@param p: string}\n");
+      for (int j = 0; j < statementsPerTemplate; j++) {
+        builder.append("  {if $p}<div>").append(j).append("</div>{/if}\n");
+      }
+      builder.append("{/template}\n\n");
+    }
+    return builder.toString();
+  }
+
+  private List<SoyTemplateBlock> getTemplateBlocks() {
+    return new ArrayList<>(
+        PsiTreeUtil.findChildrenOfType(myFixture.getFile(), SoyTemplateBlock.class));
+  }
+
+  private int getEndTagOffset(int templateIndex) {
+    return getTemplateBlocks().get(templateIndex).getTextRange().getEndOffset()
+        - "{/template}".length();
+  }
+
+  private void insert(int offset, String text) {
+    WriteCommandAction.runWriteCommandAction(
+        getProject(), () -> myFixture.getEditor().getDocument().insertString(offset, text));
+    PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+  }
+
+  public void testEditInsideTemplate() {
+    myFixture.configureByText(SoyFileType.INSTANCE, generateFile(3, 2));
+    insert(getEndTagOffset(1), "  {let $x: $p /}{$x}\n");
+    PsiTestUtil.checkFileStructure(myFixture.getFile());
+  }
+
+  public void testUnbalancedEditInsideTemplate() {
+    myFixture.configureByText(SoyFileType.INSTANCE, generateFile(3, 2));
+    insert(getEndTagOffset(1), "{if $p}\n");
+    PsiTestUtil.checkFileStructure(myFixture.getFile());
+  }
+
+  public void testEditClosingTemplate() {
+    myFixture.configureByText(SoyFileType.INSTANCE, generateFile(3, 2));
+    insert(getEndTagOffset(1), "{/template}\n{template .inserted}\n");
+    PsiTestUtil.checkFileStructure(myFixture.getFile());
+    assertSize(
+        4, PsiTreeUtil.findChildrenOfType(myFixture.getFile(), SoyTemplateBlock.class));
+  }
+
+  public void testTypingInLargeFileReparsesOnlyTheEditedTemplate() {
+    myFixture.configureByText(SoyFileType.INSTANCE, generateFile(1000, 17));
+    List<SoyTemplateBlock> blocks = getTemplateBlocks();
+    int offset = getEndTagOffset(500);
+
+    for (int i = 0; i < 20; i++) {
+      SoyTemplateBlock edited = getTemplateBlocks().get(500);
+      insert(offset, "x");
+      // The edited template was parsed on its own and replaced as a whole.
+      assertFalse(edited.isValid());
+    }
+
+    // No other template was touched.
+    List<SoyTemplateBlock> reparsedBlocks = getTemplateBlocks();
+    for (int i = 0; i < blocks.size(); i++) {
+      if (i != 500) {
+        assertSame(blocks.get(i), reparsedBlocks.get(i));
+      }
+    }
+    PsiTestUtil.checkFileStructure(myFixture.getFile());
+  }
+}